@@ -0,0 +1,179 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Arnés mínimo de benchmarks multihilo (sin dependencias externas).
+ *
+ * Para cada medición:
+ * - Lanza N hilos que ejecutan la operación en bucle
+ * - Descarta la fase de calentamiento (JIT, cachés)
+ * - Cuenta operaciones completadas durante la fase de medición -> ops/s
+ * - Cronometra 1 de cada LOTE operaciones -> percentiles de latencia
+ *
+ * Si algún hilo sigue vivo tras interrumpirlo y esperar GRACIA_MS, la
+ * medición lanza IllegalStateException con sus nombres en lugar de colgar la
+ * suite (los hilos son daemon: no impiden que la JVM termine).
+ *
+ * Configuración por propiedades del sistema:
+ *   -Dbench.calentamientoMs=500  -Dbench.medicionMs=2000  -Dbench.hilos=1,2,4,8
+ */
+public final class ArnesBenchmark {
+    public static final long CALENTAMIENTO_MS = Long.getLong("bench.calentamientoMs", 500);
+    public static final long MEDICION_MS = Long.getLong("bench.medicionMs", 2000);
+
+    // Operaciones por lote (por defecto): se consulta el reloj y se toma una muestra por lote
+    private static final int LOTE = 64;
+    // Máximo de muestras de latencia por hilo
+    private static final int MAX_MUESTRAS = 1 << 18;
+    // Tiempo de gracia para hilos bloqueados al terminar (p. ej. en una cola)
+    private static final long GRACIA_MS = 500;
+
+    private ArnesBenchmark() {
+    }
+
+    // Operación a medir; 'hilo' es el índice del hilo (0..N-1)
+    public interface Operacion {
+        void ejecutar(int hilo) throws InterruptedException;
+    }
+
+    public static final class Resultado {
+        public final double opsPorSegundo;
+        public final long p50Ns;
+        public final long p99Ns;
+        public final long p999Ns;
+        public final long maxNs;
+
+        Resultado(double opsPorSegundo, long[] muestras) {
+            this.opsPorSegundo = opsPorSegundo;
+            Arrays.sort(muestras);
+            this.p50Ns = percentil(muestras, 50.0);
+            this.p99Ns = percentil(muestras, 99.0);
+            this.p999Ns = percentil(muestras, 99.9);
+            this.maxNs = muestras.length == 0 ? 0 : muestras[muestras.length - 1];
+        }
+
+        private static long percentil(long[] ordenadas, double p) {
+            if (ordenadas.length == 0) {
+                return 0;
+            }
+            int indice = (int) Math.ceil(p / 100.0 * ordenadas.length) - 1;
+            return ordenadas[Math.max(0, Math.min(indice, ordenadas.length - 1))];
+        }
+    }
+
+    // Lista de hilos a probar: -Dbench.hilos o los valores por defecto
+    public static int[] hilos(int... porDefecto) {
+        String valor = System.getProperty("bench.hilos");
+        if (valor == null || valor.isBlank()) {
+            return porDefecto;
+        }
+        return Arrays.stream(valor.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+    }
+
+    public static Resultado medir(int numHilos, Operacion operacion) throws InterruptedException {
+        return medir(numHilos, LOTE, operacion);
+    }
+
+    // Con 'lote' explícito: operaciones lentas (p. ej. que esperan a disco) usan lotes de 1
+    public static Resultado medir(int numHilos, int lote, Operacion operacion) throws InterruptedException {
+        long[] operaciones = new long[numHilos];
+        long[][] muestras = new long[numHilos][];
+        int[] numMuestras = new int[numHilos];
+        CountDownLatch inicio = new CountDownLatch(1);
+        Thread[] hilos = new Thread[numHilos];
+        long finCalentamiento = System.nanoTime() + CALENTAMIENTO_MS * 1_000_000;
+        long finMedicion = finCalentamiento + MEDICION_MS * 1_000_000;
+
+        for (int h = 0; h < numHilos; h++) {
+            final int indice = h;
+            muestras[h] = new long[1024];
+            hilos[h] = new Thread(() -> {
+                long contador = 0;
+                long contadorInicial = -1;
+                long[] propias = muestras[indice];
+                int n = 0;
+                try {
+                    inicio.await();
+                    long ahora;
+                    while ((ahora = System.nanoTime()) < finMedicion) {
+                        boolean midiendo = ahora >= finCalentamiento;
+                        if (midiendo && contadorInicial < 0) {
+                            contadorInicial = contador;
+                        }
+                        // Primera operación del lote cronometrada individualmente
+                        long t0 = System.nanoTime();
+                        operacion.ejecutar(indice);
+                        long latencia = System.nanoTime() - t0;
+                        if (midiendo && n < MAX_MUESTRAS) {
+                            if (n == propias.length) {
+                                propias = Arrays.copyOf(propias, Math.min(MAX_MUESTRAS, n * 2));
+                            }
+                            propias[n++] = latencia;
+                        }
+                        for (int i = 1; i < lote; i++) {
+                            operacion.ejecutar(indice);
+                        }
+                        contador += lote;
+                    }
+                } catch (InterruptedException e) {
+                    // Interrumpido por el arnés al terminar: el lote en curso no cuenta
+                }
+                operaciones[indice] = contadorInicial < 0 ? 0 : contador - contadorInicial;
+                muestras[indice] = propias;
+                numMuestras[indice] = n;
+            }, "bench-" + h);
+            hilos[h].setDaemon(true);
+            hilos[h].start();
+        }
+
+        inicio.countDown();
+        for (Thread t : hilos) {
+            t.join(Math.max(1, (finMedicion - System.nanoTime()) / 1_000_000) + GRACIA_MS);
+        }
+        // Hilos que siguen bloqueados (p. ej. productor con la cola llena)
+        for (Thread t : hilos) {
+            if (t.isAlive()) {
+                t.interrupt();
+            }
+        }
+        StringBuilder atascados = new StringBuilder();
+        for (Thread t : hilos) {
+            t.join(GRACIA_MS);
+            if (t.isAlive()) {
+                atascados.append(atascados.length() == 0 ? "" : ", ").append(t.getName());
+            }
+        }
+        if (atascados.length() > 0) {
+            throw new IllegalStateException("benchmark atascado, hilos vivos tras interrumpirlos: " + atascados);
+        }
+
+        long total = 0;
+        int totalMuestras = 0;
+        for (int h = 0; h < numHilos; h++) {
+            total += operaciones[h];
+            totalMuestras += numMuestras[h];
+        }
+        long[] todas = new long[totalMuestras];
+        int pos = 0;
+        for (int h = 0; h < numHilos; h++) {
+            System.arraycopy(muestras[h], 0, todas, pos, numMuestras[h]);
+            pos += numMuestras[h];
+        }
+        return new Resultado(total / (MEDICION_MS / 1000.0), todas);
+    }
+
+    public static void imprimirEncabezado(String titulo) {
+        System.out.println("\n" + titulo);
+        System.out.println("Calentamiento " + CALENTAMIENTO_MS + " ms, medición " + MEDICION_MS + " ms");
+        System.out.printf("%-28s | %-6s | %16s | %9s | %9s | %9s | %10s%n",
+            "Variante", "Hilos", "ops/s", "p50 ns", "p99 ns", "p99.9 ns", "max ns");
+        System.out.println("-----------------------------+--------+------------------+-----------+-----------+-----------+-----------");
+    }
+
+    public static void imprimirFila(String variante, int numHilos, Resultado r) {
+        System.out.printf("%-28s | %-6d | %,16.0f | %,9d | %,9d | %,9d | %,10d%n",
+            variante, numHilos, r.opsPorSegundo, r.p50Ns, r.p99Ns, r.p999Ns, r.maxNs);
+    }
+}
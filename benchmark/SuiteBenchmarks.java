@@ -0,0 +1,41 @@
+package benchmark;
+
+import java.io.IOException;
+
+import deadlock.deadlock_con_solucion.BenchmarkDiario;
+import deadlock.deadlock_con_solucion.BenchmarkLecturas;
+import deadlock.deadlock_con_solucion.BenchmarkTransferencias;
+import deadlock.deadlock_con_solucion.BenchmarkWaitDie;
+import race.race_con_solucion.BenchmarkContadores;
+import race.race_con_solucion.BenchmarkInventario;
+import race.race_con_solucion.BenchmarkLecturasStock;
+import race.race_con_solucion.BenchmarkReservas;
+import starvation.starvation_con_solucion.BenchmarkCola;
+import starvation.starvation_con_solucion.BenchmarkPoliticas;
+import starvation.starvation_con_solucion.BenchmarkRoboTrabajo;
+
+/**
+ * Ejecuta todos los benchmarks del proyecto en secuencia.
+ *
+ * Compilar y ejecutar desde la raíz del proyecto:
+ *   javac -encoding UTF-8 -d out $(find . -name "*.java")
+ *   java -cp out benchmark.SuiteBenchmarks
+ *
+ * Ver ArnesBenchmark para las propiedades de configuración (-Dbench.*).
+ */
+public class SuiteBenchmarks {
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        BenchmarkInventario.main(args);
+        BenchmarkReservas.main(args);
+        BenchmarkContadores.main(args);
+        BenchmarkLecturasStock.main(args);
+        BenchmarkTransferencias.main(args);
+        BenchmarkWaitDie.main(args);
+        BenchmarkDiario.main(args);
+        BenchmarkLecturas.main(args);
+        BenchmarkCola.main(args);
+        BenchmarkRoboTrabajo.main(args);
+        BenchmarkPoliticas.main(args);
+    }
+}
@@ -0,0 +1,222 @@
+package deadlock;
+
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Detector de DEADLOCKS en tiempo de ejecución basado en el grafo de espera
+ * que mantiene la propia JVM (ThreadMXBean), sin instrumentar los locks.
+ *
+ * Un hilo daemon muestrea cada 'intervaloMs':
+ * 1. findDeadlockedThreads(): hilos en ciclos de espera por monitores
+ *    (synchronized) o por locks de java.util.concurrent
+ * 2. Si hay alguno, recorre la cadena hilo → lock esperado → dueño del lock
+ *    hasta cerrar el ciclo y lo informa con nombres legibles
+ *
+ * Los recursos se registran con un nombre (p. ej. "cuenta 3") en un mapa por
+ * identidad del propio lock. La JVM solo informa clase e identityHashCode del
+ * lock esperado, que pueden coincidir en dos objetos distintos: si varios
+ * recursos registrados encajan, el informe los nombra todos.
+ * Se mide el coste de cada muestreo para poder ajustar el intervalo.
+ */
+public final class DetectorDeadlock {
+
+    private final ThreadMXBean mxBean = ManagementFactory.getThreadMXBean();
+    private final long intervaloMs;
+    private final Map<Object, String> recursos = new IdentityHashMap<>();
+    private final Thread muestreador;
+
+    private final Object monitorDeteccion = new Object();
+    private volatile List<String> ciclos = null;
+    private volatile long nanosHastaDeteccion = -1;
+    private long inicioNanos;
+
+    // Estadísticas de coste (solo las escribe el hilo muestreador)
+    private volatile long muestras = 0;
+    private volatile long nanosMuestreo = 0;
+    private volatile long maxNanosMuestra = 0;
+
+    public DetectorDeadlock(long intervaloMs) {
+        this.intervaloMs = Math.max(1, intervaloMs);
+        this.muestreador = new Thread(this::muestrear, "DetectorDeadlock");
+        this.muestreador.setDaemon(true);
+    }
+
+    // Nombre con el que aparecerá 'lock' en los informes (registrar antes de iniciar)
+    public void registrarRecurso(Object lock, String nombre) {
+        recursos.put(lock, nombre);
+    }
+
+    public void iniciar() {
+        mxBean.findDeadlockedThreads(); // Inicialización de JMX fuera de las muestras medidas
+        inicioNanos = System.nanoTime();
+        muestreador.start();
+    }
+
+    public void detener() {
+        muestreador.interrupt();
+    }
+
+    /**
+     * Espera a que terminen todos los hilos o a que se detecte un deadlock,
+     * lo que ocurra primero. Devuelve true si hubo deadlock.
+     */
+    public boolean esperarHilos(Thread[] hilos) throws InterruptedException {
+        for (Thread hilo : hilos) {
+            while (hilo.isAlive()) {
+                synchronized (monitorDeteccion) {
+                    if (ciclos != null) {
+                        return true;
+                    }
+                    monitorDeteccion.wait(intervaloMs);
+                }
+            }
+        }
+        return ciclos != null;
+    }
+
+    private void muestrear() {
+        try {
+            while (ciclos == null) {
+                long t0 = System.nanoTime();
+                long[] bloqueados = mxBean.findDeadlockedThreads();
+                List<String> encontrados = bloqueados == null ? null : describirCiclos(bloqueados);
+                long duracion = System.nanoTime() - t0;
+
+                muestras++;
+                nanosMuestreo += duracion;
+                if (duracion > maxNanosMuestra) {
+                    maxNanosMuestra = duracion;
+                }
+                if (encontrados != null && !encontrados.isEmpty()) {
+                    nanosHastaDeteccion = System.nanoTime() - inicioNanos;
+                    synchronized (monitorDeteccion) {
+                        ciclos = encontrados;
+                        monitorDeteccion.notifyAll();
+                    }
+                    return;
+                }
+                Thread.sleep(intervaloMs);
+            }
+        } catch (InterruptedException e) {
+            // detener()
+        }
+    }
+
+    // Un texto por ciclo: "Thread-1 espera cuenta 1 (de Thread-2) → Thread-2 espera cuenta 0 (de Thread-1)"
+    private List<String> describirCiclos(long[] ids) {
+        Map<Long, ThreadInfo> infos = new HashMap<>();
+        for (ThreadInfo info : mxBean.getThreadInfo(ids)) {
+            if (info != null) {
+                infos.put(info.getThreadId(), info);
+            }
+        }
+        List<String> resultado = new ArrayList<>();
+        Set<Long> yaInformados = new HashSet<>();
+        for (long id : ids) {
+            // Seguir la cadena de esperas hasta repetir un hilo: desde ahí es el ciclo
+            LinkedHashSet<Long> cadena = new LinkedHashSet<>();
+            Long actual = id;
+            while (actual != null && infos.containsKey(actual) && cadena.add(actual)) {
+                long dueno = infos.get(actual).getLockOwnerId();
+                actual = dueno < 0 ? null : dueno;
+            }
+            if (actual == null || !cadena.contains(actual) || yaInformados.contains(actual)) {
+                continue; // Sin ciclo propio (espera a un hilo de otro ciclo) o ya informado
+            }
+            StringBuilder texto = new StringBuilder();
+            Long hilo = actual;
+            do {
+                ThreadInfo info = infos.get(hilo);
+                yaInformados.add(hilo);
+                if (texto.length() > 0) {
+                    texto.append(" → ");
+                }
+                texto.append(info.getThreadName()).append(" espera ")
+                    .append(nombreRecurso(info.getLockInfo()))
+                    .append(" (de ").append(info.getLockOwnerName()).append(')');
+                hilo = info.getLockOwnerId();
+            } while (!hilo.equals(actual));
+            resultado.add(texto.toString());
+        }
+        return resultado;
+    }
+
+    private String nombreRecurso(LockInfo lock) {
+        if (lock == null) {
+            return "?";
+        }
+        // identityHashCode puede repetirse: se comprueba también la clase y se nombran todos los candidatos
+        StringBuilder nombres = new StringBuilder();
+        for (Map.Entry<Object, String> recurso : recursos.entrySet()) {
+            Object objeto = recurso.getKey();
+            if (System.identityHashCode(objeto) == lock.getIdentityHashCode()
+                    && objeto.getClass().getName().equals(lock.getClassName())) {
+                if (nombres.length() > 0) {
+                    nombres.append(" o ");
+                }
+                nombres.append(recurso.getValue());
+            }
+        }
+        return nombres.length() > 0 ? nombres.toString() : lock.toString();
+    }
+
+    public boolean hayDeadlock() {
+        return ciclos != null;
+    }
+
+    // Ciclos detectados (vacío si no hubo deadlock)
+    public List<String> getCiclos() {
+        List<String> c = ciclos;
+        return c == null ? List.of() : c;
+    }
+
+    // Tiempo desde iniciar() hasta la detección, o -1
+    public long getMsHastaDeteccion() {
+        long n = nanosHastaDeteccion;
+        return n < 0 ? -1 : n / 1_000_000;
+    }
+
+    public long getIntervaloMs() {
+        return intervaloMs;
+    }
+
+    public long getMuestras() {
+        return muestras;
+    }
+
+    public long getNanosPromedioPorMuestra() {
+        long m = muestras;
+        return m == 0 ? 0 : nanosMuestreo / m;
+    }
+
+    public long getMaxNanosPorMuestra() {
+        return maxNanosMuestra;
+    }
+
+    // Fracción de un núcleo que consume el muestreo con el intervalo configurado
+    public double getSobrecarga() {
+        return getNanosPromedioPorMuestra() / (intervaloMs * 1_000_000.0);
+    }
+
+    public void imprimirInforme() {
+        if (ciclos != null) {
+            System.out.println("  Detectado " + getMsHastaDeteccion() + " ms tras iniciar el detector:");
+            for (String ciclo : ciclos) {
+                System.out.println("   • Ciclo: " + ciclo);
+            }
+        }
+        System.out.printf("  Detector: %d muestras cada %d ms, %,d ns/muestra (máx %,d ns), sobrecarga %.3f%% de un núcleo%n",
+            getMuestras(), intervaloMs, getNanosPromedioPorMuestra(), getMaxNanosPorMuestra(), getSobrecarga() * 100);
+    }
+}
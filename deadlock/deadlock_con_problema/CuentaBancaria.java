@@ -1,6 +1,8 @@
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
+import deadlock.DetectorDeadlock;
+
 class CuentaBancaria {
     private final int numeroCuenta;
     private double saldo;
@@ -129,6 +131,13 @@ class CuentaBancaria {
             DateTimeFormatter.ofPattern("HH:mm:ss.SSS")));
         System.out.println("═══════════════════════════════════════════════════════════════════════════════════════════════════\n");
         
+        // Detector de deadlocks: intervalo de muestreo con -Ddetector.intervaloMs (10 ms por defecto)
+        DetectorDeadlock detector = new DetectorDeadlock(Long.getLong("detector.intervaloMs", 10));
+        for (CuentaBancaria cuenta : cuentas) {
+            detector.registrarRecurso(cuenta, "cuenta " + cuenta.getNumeroCuenta());
+        }
+        detector.iniciar();
+        
         Thread[] threads = new Thread[10];
         for (int i = 0; i < 10; i++) {
             final int threadNum = i;
@@ -157,19 +166,15 @@ class CuentaBancaria {
             try { Thread.sleep(17); } catch (InterruptedException e) {}
         }
         
-        System.out.println("\n⏰ Todos los threads iniciados. Esperando hasta 3 segundos para que completen...\n");
+        System.out.println("\n⏰ Todos los threads iniciados. El detector vigila el grafo de espera...\n");
         
         boolean deadlockDetectado = false;
-        for (Thread thread : threads) {
-            try {
-                thread.join(300);
-                if (thread.isAlive()) {
-                    deadlockDetectado = true;
-                }
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+        try {
+            deadlockDetectado = detector.esperarHilos(threads);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
         }
+        detector.detener();
         
         System.out.println("\n═══════════════════════════════════════════════════════════════════════════════════════════════════");
         System.out.println("                                    RESUMEN FINAL");
@@ -177,6 +182,17 @@ class CuentaBancaria {
             DateTimeFormatter.ofPattern("HH:mm:ss.SSS")));
         System.out.println("═══════════════════════════════════════════════════════════════════════════════════════════════════\n");
         
+        if (deadlockDetectado) {
+            System.out.println("  DEADLOCK DETECTADO:");
+            detector.imprimirInforme();
+            System.out.println("   • El sistema no pudo completar todas las transferencias");
+            System.out.println("   • Causa: Ciclos de espera circular entre threads");
+            System.out.println("   • Solución: Implementar ordenamiento consistente de locks");
+            // getSaldo() es synchronized: leer una cuenta del ciclo bloquearía también al main
+            System.out.println("\n  Saldos no disponibles: las cuentas del ciclo quedan bloqueadas para siempre");
+            System.exit(1);
+        }
+        
         System.out.println("SALDOS FINALES:");
         System.out.println("─────────────────────────────────");
         double totalFinal = 0;
@@ -188,13 +204,7 @@ class CuentaBancaria {
         System.out.println("─────────────────────────────────");
         System.out.printf("  Total:    $%-6.0f\n", totalFinal);
         
-        if (deadlockDetectado) {
-            System.out.println("\n  DEADLOCK DETECTADO:");
-            System.out.println("   • El sistema no pudo completar todas las transferencias");
-            System.out.println("   • Causa: Ciclos de espera circular entre threads");
-            System.out.println("   • Solución: Implementar ordenamiento consistente de locks");
-        } else {
-            System.out.println("\n✓ Todas las transferencias completadas exitosamente");
-        }
+        System.out.println("\n✓ Todas las transferencias completadas exitosamente");
+        detector.imprimirInforme();
     }
 }
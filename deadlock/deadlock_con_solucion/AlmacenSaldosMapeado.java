@@ -0,0 +1,401 @@
+package deadlock.deadlock_con_solucion;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Almacén de saldos FUERA DEL HEAP, respaldado por un archivo mapeado en memoria.
+ *
+ * En lugar de un objeto CuentaBancariaSolucion por cuenta, cada saldo es una
+ * ranura long (centavos) en un archivo:
+ *
+ *   [cabecera de 64 bytes: MAGICO, numeroCuentas] [64 carriles de tránsito] [saldo 0] [saldo 1] ...
+ *
+ * - Sin objetos por cuenta: millones de cuentas no ocupan heap ni alargan el GC
+ * - Acceso atómico a cada ranura con un VarHandle sobre el buffer mapeado
+ * - Los saldos se mapean por segmentos de 1 GiB (un MappedByteBuffer no pasa
+ *   de 2 GiB), así que el límite es el de un int de cuentas
+ * - Reinicio rápido: abrir un archivo existente solo lo mapea, sin recargar saldos
+ *
+ * transferir() tiene que escribir dos ranuras, y un corte del proceso entre
+ * ambas escrituras perdería dinero. Por eso cada transferencia ocupa un
+ * CARRIL del archivo con su intención y las imágenes previas de los saldos:
+ * 1. Anota origen y destino en un carril libre (RESERVANDO)
+ * 2. Bloquea ambas cuentas en orden de número con el bit BLOQUEO de la ranura
+ * 3. Si hay fondos, anota los saldos previos (ACTIVA), escribe los nuevos y
+ *    marca el carril CONFIRMADA
+ * 4. Quita los bits de bloqueo y libera el carril
+ * Al abrir un archivo existente, los carriles ACTIVA se deshacen con sus
+ * imágenes previas y se quitan los bloqueos que quedaron. Cubre la caída del
+ * proceso (las páginas mapeadas siguen en la caché del SO); frente a un corte
+ * de luz solo lo escrito antes del último forzar() es fiable.
+ */
+public class AlmacenSaldosMapeado implements AutoCloseable {
+    private static final long MAGICO = 0x53414C444F533032L; // "SALDOS02"
+    private static final int CABECERA = 64;
+    private static final int POS_NUMERO_CUENTAS = 8;
+
+    // Carriles de tránsito: uno por transferencia en curso, una línea de caché cada uno
+    private static final int CARRILES = 64;
+    private static final int TAMANO_CARRIL = 64;
+    private static final int POS_ESTADO = 0;
+    private static final int POS_ORIGEN = 8;
+    private static final int POS_DESTINO = 16;
+    private static final int POS_PREVIO_ORIGEN = 24;
+    private static final int POS_PREVIO_DESTINO = 32;
+    private static final int CONTROL = CABECERA + CARRILES * TAMANO_CARRIL;
+
+    private static final long LIBRE = 0;
+    private static final long TOMADO = 1;      // Reclamado, aún sin cuentas anotadas
+    private static final long RESERVANDO = 2;  // Cuentas anotadas; puede tener bloqueos puestos
+    private static final long ACTIVA = 3;      // Saldos previos anotados; escribiendo los nuevos
+    private static final long CONFIRMADA = 4;  // Saldos nuevos escritos; quitando bloqueos
+
+    // Bit de bloqueo dentro de la ranura del saldo (los saldos nunca llegan a 2^62)
+    private static final long BLOQUEO = 1L << 62;
+    private static final int ESPERAS_ACTIVAS = 64;
+
+    // 2^27 saldos de 8 bytes = 1 GiB por segmento mapeado
+    private static final int BITS_SEGMENTO = 27;
+    private static final int CUENTAS_POR_SEGMENTO = 1 << BITS_SEGMENTO;
+
+    // Orden fijo para que el archivo sea portable entre máquinas
+    private static final VarHandle SLOT =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel canal;
+    private final MappedByteBuffer control;
+    private final MappedByteBuffer[] segmentos;
+    private final int numeroCuentas;
+    private int recuperadas = 0;
+
+    private AlmacenSaldosMapeado(FileChannel canal, MappedByteBuffer control, MappedByteBuffer[] segmentos,
+                                 int numeroCuentas) {
+        this.canal = canal;
+        this.control = control;
+        this.segmentos = segmentos;
+        this.numeroCuentas = numeroCuentas;
+    }
+
+    /**
+     * Abre el almacén de 'ruta'. Si el archivo ya existe con la cabecera válida
+     * se reutilizan sus saldos tras resolver las transferencias que quedaron en
+     * tránsito; si su número de cuentas no es 'numeroCuentas' lanza IOException.
+     * Si el archivo está vacío o su creación quedó a medias, se crea con todas
+     * las cuentas a 'saldoInicialCentavos'.
+     */
+    public static AlmacenSaldosMapeado abrir(Path ruta, int numeroCuentas, long saldoInicialCentavos) throws IOException {
+        if (numeroCuentas <= 0 || saldoInicialCentavos < 0 || saldoInicialCentavos >= BLOQUEO / numeroCuentas) {
+            throw new IllegalArgumentException("cuentas o saldo inicial fuera de rango");
+        }
+        FileChannel canal = FileChannel.open(ruta,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long tamano = tamanoArchivo(numeroCuentas);
+            long tamanoActual = canal.size();
+            long magico = leerMagico(canal); // Antes de mapear: mapear alargaría un archivo ajeno
+            boolean existia = magico == MAGICO;
+            if (existia) {
+                ByteBuffer cabecera = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+                canal.read(cabecera, POS_NUMERO_CUENTAS);
+                long guardadas = cabecera.getLong(0);
+                if (guardadas != numeroCuentas || tamanoActual != tamano) {
+                    throw new IOException(String.format("%s tiene %,d cuentas (%,d bytes); se pidieron %,d",
+                        ruta, guardadas, tamanoActual, numeroCuentas));
+                }
+            } else if (magico != 0) {
+                throw new IOException(ruta + " no es un almacén de saldos de este formato");
+            } else if (tamanoActual > tamano) {
+                canal.truncate(tamano); // Restos de una creación a medias con otro tamaño
+            }
+
+            MappedByteBuffer control = canal.map(FileChannel.MapMode.READ_WRITE, 0, CONTROL);
+            MappedByteBuffer[] segmentos = new MappedByteBuffer[(numeroCuentas - 1) / CUENTAS_POR_SEGMENTO + 1];
+            for (int i = 0; i < segmentos.length; i++) {
+                long primera = (long) i * CUENTAS_POR_SEGMENTO;
+                long cuentas = Math.min(CUENTAS_POR_SEGMENTO, numeroCuentas - primera);
+                segmentos[i] = canal.map(FileChannel.MapMode.READ_WRITE, CONTROL + 8 * primera, 8 * cuentas);
+            }
+            AlmacenSaldosMapeado almacen = new AlmacenSaldosMapeado(canal, control, segmentos, numeroCuentas);
+
+            if (existia) {
+                almacen.recuperadas = almacen.recuperar(); // Reinicio: los saldos ya están en el archivo
+                return almacen;
+            }
+            for (int i = 0; i < numeroCuentas; i++) {
+                SLOT.set(almacen.segmento(i), posicion(i), saldoInicialCentavos);
+            }
+            for (int c = 0; c < CARRILES; c++) {
+                SLOT.set(control, posicionCarril(c) + POS_ESTADO, LIBRE);
+            }
+            SLOT.set(control, POS_NUMERO_CUENTAS, (long) numeroCuentas);
+            almacen.forzarSaldos();
+            SLOT.setVolatile(control, 0, MAGICO); // La cabecera se escribe al final: marca el archivo como completo
+            control.force();
+            return almacen;
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    // 0 si el archivo es más corto que la marca (vacío o creación a medias)
+    private static long leerMagico(FileChannel canal) throws IOException {
+        ByteBuffer marca = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        while (marca.hasRemaining() && canal.read(marca, marca.position()) > 0) {
+            // Leer hasta 8 bytes o fin de archivo
+        }
+        return marca.hasRemaining() ? 0 : marca.getLong(0);
+    }
+
+    private static long tamanoArchivo(int numeroCuentas) {
+        return CONTROL + 8L * numeroCuentas;
+    }
+
+    private MappedByteBuffer segmento(int cuenta) {
+        return segmentos[cuenta >>> BITS_SEGMENTO];
+    }
+
+    // Posición de la ranura dentro de su segmento
+    private static int posicion(int cuenta) {
+        return (cuenta & (CUENTAS_POR_SEGMENTO - 1)) << 3;
+    }
+
+    private static int posicionCarril(int carril) {
+        return CABECERA + carril * TAMANO_CARRIL;
+    }
+
+    // Devuelve false si el origen no tiene fondos suficientes. Con montos
+    // positivos y el total acotado al crear, ningún saldo llega al bit BLOQUEO.
+    public boolean transferir(int origen, int destino, long montoCentavos) {
+        if (montoCentavos <= 0) {
+            throw new IllegalArgumentException("monto no positivo: " + montoCentavos);
+        }
+        if (origen == destino) {
+            return getSaldoCentavos(origen) >= montoCentavos;
+        }
+        int carril = posicionCarril(tomarCarril());
+        SLOT.set(control, carril + POS_ORIGEN, (long) origen);
+        SLOT.set(control, carril + POS_DESTINO, (long) destino);
+        SLOT.setVolatile(control, carril + POS_ESTADO, RESERVANDO);
+
+        long saldoOrigen;
+        long saldoDestino;
+        if (origen < destino) {
+            saldoOrigen = bloquear(origen);
+            saldoDestino = bloquear(destino);
+        } else {
+            saldoDestino = bloquear(destino);
+            saldoOrigen = bloquear(origen);
+        }
+        boolean hayFondos = saldoOrigen >= montoCentavos;
+        if (hayFondos) {
+            SLOT.set(control, carril + POS_PREVIO_ORIGEN, saldoOrigen);
+            SLOT.set(control, carril + POS_PREVIO_DESTINO, saldoDestino);
+            SLOT.setVolatile(control, carril + POS_ESTADO, ACTIVA);
+            saldoOrigen -= montoCentavos;
+            saldoDestino += montoCentavos;
+            SLOT.setVolatile(segmento(origen), posicion(origen), saldoOrigen | BLOQUEO);
+            SLOT.setVolatile(segmento(destino), posicion(destino), saldoDestino | BLOQUEO);
+            SLOT.setVolatile(control, carril + POS_ESTADO, CONFIRMADA);
+        }
+        SLOT.setVolatile(segmento(origen), posicion(origen), saldoOrigen);
+        SLOT.setVolatile(segmento(destino), posicion(destino), saldoDestino);
+        SLOT.setVolatile(control, carril + POS_ESTADO, LIBRE);
+        return hayFondos;
+    }
+
+    // Reclama un carril libre empezando por uno al azar
+    private int tomarCarril() {
+        int inicio = ThreadLocalRandom.current().nextInt(CARRILES);
+        for (int intento = 0; ; intento++) {
+            int carril = (inicio + intento) & (CARRILES - 1);
+            if (SLOT.compareAndSet(control, posicionCarril(carril) + POS_ESTADO, LIBRE, TOMADO)) {
+                return carril;
+            }
+            if ((intento + 1) % CARRILES == 0) {
+                esperar(intento / CARRILES); // Todos ocupados: más hilos que carriles
+            }
+        }
+    }
+
+    // Pone el bit de bloqueo de la cuenta y devuelve su saldo
+    private long bloquear(int cuenta) {
+        MappedByteBuffer segmento = segmento(cuenta);
+        int pos = posicion(cuenta);
+        for (int intento = 0; ; intento++) {
+            long valor = (long) SLOT.getVolatile(segmento, pos);
+            if ((valor & BLOQUEO) == 0 && SLOT.compareAndSet(segmento, pos, valor, valor | BLOQUEO)) {
+                return valor;
+            }
+            esperar(intento);
+        }
+    }
+
+    private static void esperar(int intento) {
+        if (intento < ESPERAS_ACTIVAS) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Resuelve los carriles que dejó un proceso caído (sin hilos en marcha):
+     * primero deshace los ACTIVA con sus saldos previos (como mucho uno por
+     * cuenta, porque los tiene bloqueados) y después quita los bloqueos de
+     * todas las cuentas anotadas. Devuelve cuántas transferencias estaban a
+     * medio escribir o a medio desbloquear.
+     */
+    private int recuperar() throws IOException {
+        int resueltas = 0;
+        boolean cambios = false;
+        for (int c = 0; c < CARRILES; c++) {
+            int carril = posicionCarril(c);
+            if ((long) SLOT.get(control, carril + POS_ESTADO) == ACTIVA) {
+                escribirSaldo(cuentaDeCarril(carril + POS_ORIGEN), (long) SLOT.get(control, carril + POS_PREVIO_ORIGEN));
+                escribirSaldo(cuentaDeCarril(carril + POS_DESTINO), (long) SLOT.get(control, carril + POS_PREVIO_DESTINO));
+            }
+        }
+        for (int c = 0; c < CARRILES; c++) {
+            int carril = posicionCarril(c);
+            long estado = (long) SLOT.get(control, carril + POS_ESTADO);
+            if (estado == LIBRE) {
+                continue;
+            }
+            if (estado >= RESERVANDO) {
+                for (int campo : new int[] {POS_ORIGEN, POS_DESTINO}) {
+                    int cuenta = cuentaDeCarril(carril + campo);
+                    escribirSaldo(cuenta, (long) SLOT.get(segmento(cuenta), posicion(cuenta)) & ~BLOQUEO);
+                }
+            }
+            if (estado >= ACTIVA) {
+                resueltas++;
+            }
+            SLOT.set(control, carril + POS_ESTADO, LIBRE);
+            cambios = true;
+        }
+        if (cambios) {
+            forzar();
+        }
+        return resueltas;
+    }
+
+    private int cuentaDeCarril(int pos) throws IOException {
+        long cuenta = (long) SLOT.get(control, pos);
+        if (cuenta < 0 || cuenta >= numeroCuentas) {
+            throw new IOException("carril de tránsito corrupto: cuenta " + cuenta);
+        }
+        return (int) cuenta;
+    }
+
+    private void escribirSaldo(int cuenta, long saldo) {
+        SLOT.setVolatile(segmento(cuenta), posicion(cuenta), saldo);
+    }
+
+    // Transferencias en tránsito que se deshicieron o completaron al abrir
+    public int getRecuperadas() {
+        return recuperadas;
+    }
+
+    // Con una transferencia en curso puede verse ya el saldo nuevo del origen y aún no el del destino
+    public long getSaldoCentavos(int cuenta) {
+        return (long) SLOT.getVolatile(segmento(cuenta), posicion(cuenta)) & ~BLOQUEO;
+    }
+
+    // Suma de todos los saldos; exacta cuando no hay transferencias en curso
+    public long totalCentavos() {
+        long total = 0;
+        for (int i = 0; i < numeroCuentas; i++) {
+            total += getSaldoCentavos(i);
+        }
+        return total;
+    }
+
+    public int getNumeroCuentas() {
+        return numeroCuentas;
+    }
+
+    // Escribe en disco las páginas modificadas (el SO también lo hace por su cuenta)
+    public void forzar() {
+        forzarSaldos();
+        control.force();
+    }
+
+    private void forzarSaldos() {
+        for (MappedByteBuffer segmento : segmentos) {
+            segmento.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        forzar();
+        canal.close();
+    }
+
+    // Uso: AlmacenSaldosMapeado [archivo] [cuentas] [corte]
+    // Ejecutarlo dos veces seguidas muestra el reinicio sin recarga; con 'corte'
+    // el proceso se mata a mitad de las transferencias y la siguiente ejecución
+    // recupera las que quedaron en tránsito.
+    public static void main(String[] args) throws Exception {
+        Path ruta = Paths.get(args.length > 0 ? args[0] : "saldos.dat");
+        int numeroCuentas = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        boolean corte = args.length > 2 && args[2].equals("corte");
+        long saldoInicial = MotorTransferenciasOptimista.aCentavos(1000);
+        boolean existia = Files.exists(ruta);
+
+        long t0 = System.nanoTime();
+        try (AlmacenSaldosMapeado almacen = abrir(ruta, numeroCuentas, saldoInicial)) {
+            System.out.printf("%s %s con %,d cuentas en %.1f ms%n",
+                existia ? "Reabierto" : "Creado", ruta, numeroCuentas, (System.nanoTime() - t0) / 1e6);
+            if (almacen.getRecuperadas() > 0) {
+                System.out.printf("Recuperadas %d transferencias en tránsito de la ejecución anterior%n",
+                    almacen.getRecuperadas());
+            }
+            long totalInicial = almacen.totalCentavos();
+            System.out.printf("Total inicial: $%,.2f%s%n", totalInicial / 100.0,
+                totalInicial == numeroCuentas * saldoInicial ? "" : "  ⚠️  distinto del de creación");
+
+            int numHilos = 8;
+            int porHilo = 1_000_000;
+            Thread[] threads = new Thread[numHilos];
+            long inicio = System.nanoTime();
+            for (int i = 0; i < numHilos; i++) {
+                threads[i] = new Thread(() -> {
+                    ThreadLocalRandom azar = ThreadLocalRandom.current();
+                    for (int j = 0; j < porHilo; j++) {
+                        almacen.transferir(azar.nextInt(numeroCuentas), azar.nextInt(numeroCuentas),
+                            azar.nextLong(1, 50_000));
+                    }
+                }, "Thread-" + (i + 1));
+            }
+            for (Thread t : threads) t.start();
+            if (corte) {
+                Thread.sleep(200);
+                System.out.println("Corte simulado: el proceso muere con transferencias en curso");
+                Runtime.getRuntime().halt(1);
+            }
+            for (Thread t : threads) t.join();
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            long totalFinal = almacen.totalCentavos();
+            System.out.printf("%,d transferencias aleatorias en %.2f s (%,.0f por segundo)%n",
+                (long) numHilos * porHilo, segundos, numHilos * porHilo / segundos);
+            System.out.printf("Total final:   $%,.2f%n", totalFinal / 100.0);
+            System.out.println(totalFinal == totalInicial
+                ? "\n✅ Total conservado: no se creó ni destruyó dinero"
+                : "\n⚠️  El total cambió: revisar el almacén mapeado");
+        }
+    }
+}
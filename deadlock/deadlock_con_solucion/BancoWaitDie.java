@@ -0,0 +1,104 @@
+package deadlock.deadlock_con_solucion;
+
+/**
+ * Cuentas protegidas por GestorLocksWaitDie en lugar de monitores ordenados.
+ *
+ * transferir() bloquea primero el ORIGEN, lee su saldo y solo entonces
+ * bloquea el DESTINO, el mismo orden "natural" que produce deadlock en
+ * deadlock_con_problema. Aquí no hay deadlock: si dos transferencias se
+ * cruzan, la más joven se aborta y se reintenta.
+ *
+ * Los saldos solo se leen o escriben con el lock de la cuenta tomado en el
+ * gestor (cuyo monitor da la visibilidad entre hilos).
+ */
+public class BancoWaitDie {
+    private final GestorLocksWaitDie gestor;
+    private final double[] saldos;
+
+    public BancoWaitDie(double[] saldosIniciales) {
+        this.saldos = saldosIniciales.clone();
+        this.gestor = new GestorLocksWaitDie(saldos.length);
+    }
+
+    // Devuelve false si el origen no tiene fondos suficientes
+    public boolean transferir(int origen, int destino, double monto) {
+        return gestor.ejecutar(tx -> {
+            tx.bloquear(origen);
+            if (saldos[origen] < monto) {
+                return false;
+            }
+            tx.bloquear(destino); // Puede abortar: aún no se escribió nada
+            saldos[origen] -= monto;
+            saldos[destino] += monto;
+            return true;
+        });
+    }
+
+    public double getSaldo(int cuenta) {
+        return gestor.ejecutar(tx -> {
+            tx.bloquear(cuenta);
+            return saldos[cuenta];
+        });
+    }
+
+    // Suma de todos los saldos; exacta cuando no hay transferencias en curso
+    public double total() {
+        double total = 0;
+        for (int i = 0; i < saldos.length; i++) {
+            total += getSaldo(i);
+        }
+        return total;
+    }
+
+    public GestorLocksWaitDie getGestor() {
+        return gestor;
+    }
+
+    public int getNumeroCuentas() {
+        return saldos.length;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int[][][] transferencias = CuentaBancariaSolucion.TRANSFERENCIAS;
+        double[] saldosIniciales = new double[5];
+        for (int i = 0; i < 5; i++) {
+            saldosIniciales[i] = 1000 * (i + 1);
+        }
+        BancoWaitDie banco = new BancoWaitDie(saldosIniciales);
+
+        System.out.println("TABLA DE TRANSFERENCIAS PLANIFICADAS (WAIT-DIE, orden origen→destino):\n");
+        CuentaBancariaSolucion.imprimirTablaTransferencias(transferencias);
+        double totalInicial = banco.total();
+
+        Thread[] threads = new Thread[transferencias.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int threadNum = i;
+            threads[i] = new Thread(() -> {
+                for (int[] t : transferencias[threadNum]) {
+                    boolean exito = banco.transferir(t[0], t[1], t[2]);
+                    System.out.println((exito ? "✓ " : "✗ ") + Thread.currentThread().getName() +
+                        ": " + t[0] + "→" + t[1] + ", $" + t[2] +
+                        (exito ? "" : " (saldo insuficiente)"));
+                }
+            }, "Thread-" + (i + 1));
+        }
+        for (Thread t : threads) t.start();
+        for (Thread t : threads) t.join();
+
+        System.out.println("\nSALDOS FINALES:");
+        System.out.println("─────────────────────────────────");
+        for (int i = 0; i < banco.getNumeroCuentas(); i++) {
+            System.out.printf("  Cuenta %d: $%-6.0f\n", i, banco.getSaldo(i));
+        }
+        System.out.println("─────────────────────────────────");
+        double totalFinal = banco.total();
+        System.out.printf("  Total:    $%-6.0f\n", totalFinal);
+
+        GestorLocksWaitDie gestor = banco.getGestor();
+        System.out.println("\nTransacciones confirmadas: " + gestor.getConfirmadas() +
+            ", abortadas y reintentadas: " + gestor.getAbortos());
+        System.out.println(totalFinal == totalInicial
+            ? "\n✅ Total conservado y sin deadlock pese al orden origen→destino"
+            : "\n⚠️  El total cambió: revisar el gestor wait-die");
+    }
+}
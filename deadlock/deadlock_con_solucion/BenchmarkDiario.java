@@ -0,0 +1,54 @@
+package deadlock.deadlock_con_solucion;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import benchmark.ArnesBenchmark;
+
+// Benchmark de transferir() con el diario de transferencias activo, para
+// ventanas de commit en grupo de 1, 10 y 100 ms, frente a no tener diario.
+// Cada operación es una transferencia de ida y otra de vuelta de la tabla
+// TRANSFERENCIAS; con diario, cada una espera a su fsync (lotes de 1 en el arnés).
+//
+// Tras cada fila con diario se imprime cuántos registros cubrió cada fsync.
+public class BenchmarkDiario {
+    static final int CUENTAS = 5;
+    static final long[] VENTANAS_MS = {1, 10, 100};
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        CuentaBancariaSolucion.registro = new RegistroEventos(2, false);
+        CuentaBancariaSolucion.retardoSimuladoMs = 0;
+        int[][][] transferencias = CuentaBancariaSolucion.TRANSFERENCIAS;
+
+        ArnesBenchmark.imprimirEncabezado("BENCHMARK diario con commit en grupo (ida y vuelta)");
+        for (int numHilos : ArnesBenchmark.hilos(1, 16, 64)) {
+            CuentaBancariaSolucion[] cuentas = new CuentaBancariaSolucion[CUENTAS];
+            for (int i = 0; i < CUENTAS; i++) {
+                cuentas[i] = new CuentaBancariaSolucion(i, 1000 * (i + 1));
+            }
+            int[] siguiente = new int[numHilos];
+            ArnesBenchmark.Operacion idaYVuelta = h -> {
+                int[] t = transferencias[h % transferencias.length][siguiente[h]++ % 3];
+                cuentas[t[0]].transferir(cuentas[t[1]], t[2]);
+                cuentas[t[1]].transferir(cuentas[t[0]], t[2]);
+            };
+
+            ArnesBenchmark.imprimirFila("Sin diario", numHilos, ArnesBenchmark.medir(numHilos, idaYVuelta));
+            for (long ventanaMs : VENTANAS_MS) {
+                Path archivo = Files.createTempFile("transferencias", ".wal");
+                try (DiarioTransferencias diario = new DiarioTransferencias(archivo, ventanaMs)) {
+                    CuentaBancariaSolucion.diario = diario;
+                    ArnesBenchmark.imprimirFila("Diario, ventana " + ventanaMs + " ms", numHilos,
+                        ArnesBenchmark.medir(numHilos, 1, idaYVuelta));
+                    CuentaBancariaSolucion.diario = null;
+                    System.out.printf("%-28s   %,d registros / %,d fsync = %.1f por fsync%n", "",
+                        diario.getRegistrosEscritos(), diario.getForzados(),
+                        (double) diario.getRegistrosEscritos() / Math.max(1, diario.getForzados()));
+                } finally {
+                    Files.delete(archivo);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package deadlock.deadlock_con_solucion;
+
+import benchmark.ArnesBenchmark;
+
+// Benchmark de consultas de saldo con una proporción de 100 lecturas por
+// cada transferencia, variando el número de hilos lectores:
+//
+// - synchronized getSaldo: lectura exclusiva como en deadlock_con_problema
+//   (cada lectura toma el monitor de la cuenta)
+// - StampedLock optimista: CuentaBancariaSolucion.getSaldo (sello optimista
+//   validado, readLock solo si una transferencia lo invalidó)
+//
+// Cada operación es una lectura; 1 de cada LECTURAS_POR_ESCRITURA es una
+// transferencia de ida y vuelta.
+public class BenchmarkLecturas {
+    static final int CUENTAS = 5;
+    static final int LECTURAS_POR_ESCRITURA = 100;
+
+    // Cuenta con lecturas exclusivas (getSaldo synchronized), como CuentaBancaria
+    private static final class CuentaSincronizada {
+        private final int numeroCuenta;
+        private double saldo;
+
+        CuentaSincronizada(int numeroCuenta, double saldo) {
+            this.numeroCuenta = numeroCuenta;
+            this.saldo = saldo;
+        }
+
+        void transferir(CuentaSincronizada destino, double monto) {
+            CuentaSincronizada primera = numeroCuenta < destino.numeroCuenta ? this : destino;
+            CuentaSincronizada segunda = primera == this ? destino : this;
+            synchronized (primera) {
+                synchronized (segunda) {
+                    if (saldo >= monto) {
+                        saldo -= monto;
+                        destino.saldo += monto;
+                    }
+                }
+            }
+        }
+
+        synchronized double getSaldo() {
+            return saldo;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        CuentaBancariaSolucion.registro = new RegistroEventos(2, false);
+        CuentaBancariaSolucion.retardoSimuladoMs = 0;
+
+        ArnesBenchmark.imprimirEncabezado("BENCHMARK getSaldo (" + LECTURAS_POR_ESCRITURA
+            + " lecturas : 1 transferencia, " + CUENTAS + " cuentas)");
+        for (int numHilos : ArnesBenchmark.hilos(1, 2, 4, 8, 16, 32)) {
+            CuentaSincronizada[] sincronizadas = new CuentaSincronizada[CUENTAS];
+            CuentaBancariaSolucion[] cuentas = new CuentaBancariaSolucion[CUENTAS];
+            for (int i = 0; i < CUENTAS; i++) {
+                sincronizadas[i] = new CuentaSincronizada(i, 1000 * (i + 1));
+                cuentas[i] = new CuentaBancariaSolucion(i, 1000 * (i + 1));
+            }
+            int[] contador = new int[numHilos];
+            double[] sumidero = new double[numHilos];
+
+            ArnesBenchmark.imprimirFila("synchronized getSaldo", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                int k = contador[h]++;
+                if (k % LECTURAS_POR_ESCRITURA == 0) {
+                    int origen = (k / LECTURAS_POR_ESCRITURA + h) % CUENTAS;
+                    int destino = (origen + 1) % CUENTAS;
+                    sincronizadas[origen].transferir(sincronizadas[destino], 10);
+                    sincronizadas[destino].transferir(sincronizadas[origen], 10);
+                } else {
+                    sumidero[h] += sincronizadas[k % CUENTAS].getSaldo();
+                }
+            }));
+            ArnesBenchmark.imprimirFila("StampedLock optimista", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                int k = contador[h]++;
+                if (k % LECTURAS_POR_ESCRITURA == 0) {
+                    int origen = (k / LECTURAS_POR_ESCRITURA + h) % CUENTAS;
+                    int destino = (origen + 1) % CUENTAS;
+                    cuentas[origen].transferir(cuentas[destino], 10);
+                    cuentas[destino].transferir(cuentas[origen], 10);
+                } else {
+                    sumidero[h] += cuentas[k % CUENTAS].getSaldo();
+                }
+            }));
+        }
+    }
+}
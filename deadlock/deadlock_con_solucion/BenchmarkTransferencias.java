@@ -0,0 +1,101 @@
+package deadlock.deadlock_con_solucion;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import benchmark.ArnesBenchmark;
+
+// Benchmark de transferir() con la carga de TRANSFERENCIAS: el hilo h recorre
+// en bucle las transferencias del thread (h % 10) de la tabla, y cada
+// operación es la transferencia de ida más la de vuelta (los saldos no se agotan).
+//
+// - Monitores ordenados: CuentaBancariaSolucion.transferir (sin logs ni retardo)
+// - Optimista: MotorTransferenciasOptimista (versiones + CAS)
+// - Particionado: LibroParticionado con una partición por núcleo (espera cada resultado)
+// - Mapeado: AlmacenSaldosMapeado (archivo temporal, bloqueo por bit en la ranura y carril de tránsito)
+//
+// Segunda tabla: nómina de la cuenta 0 a las cuentas 1..K y su devolución (K→1),
+// con K llamadas a transferir() frente a dos transferirVarios().
+public class BenchmarkTransferencias {
+    static final int CUENTAS = 5;
+    static final int TRAMOS_NOMINA = CUENTAS - 1;
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        CuentaBancariaSolucion.registro = new RegistroEventos(2, false);
+        CuentaBancariaSolucion.retardoSimuladoMs = 0;
+        int[][][] transferencias = CuentaBancariaSolucion.TRANSFERENCIAS;
+
+        ArnesBenchmark.imprimirEncabezado("BENCHMARK transferir (ida y vuelta, " + CUENTAS + " cuentas)");
+        for (int numHilos : ArnesBenchmark.hilos(1, 2, 4, 8, 16, 32)) {
+            CuentaBancariaSolucion[] cuentas = new CuentaBancariaSolucion[CUENTAS];
+            long[] saldos = new long[CUENTAS];
+            for (int i = 0; i < CUENTAS; i++) {
+                cuentas[i] = new CuentaBancariaSolucion(i, 1000 * (i + 1));
+                saldos[i] = MotorTransferenciasOptimista.aCentavos(1000 * (i + 1));
+            }
+            MotorTransferenciasOptimista motor = new MotorTransferenciasOptimista(saldos);
+            LibroParticionado libro = new LibroParticionado(saldos, Runtime.getRuntime().availableProcessors());
+            Path archivo = Files.createTempFile("saldos", ".dat");
+            AlmacenSaldosMapeado mapeado = AlmacenSaldosMapeado.abrir(archivo, CUENTAS,
+                MotorTransferenciasOptimista.aCentavos(1000));
+            int[] siguiente = new int[numHilos];
+
+            ArnesBenchmark.imprimirFila("Monitores ordenados", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                int[] t = transferencias[h % transferencias.length][siguiente[h]++ % 3];
+                cuentas[t[0]].transferir(cuentas[t[1]], t[2]);
+                cuentas[t[1]].transferir(cuentas[t[0]], t[2]);
+            }));
+            ArnesBenchmark.imprimirFila("Optimista (CAS versionado)", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                int[] t = transferencias[h % transferencias.length][siguiente[h]++ % 3];
+                long monto = t[2] * 100L;
+                motor.transferir(t[0], t[1], monto);
+                motor.transferir(t[1], t[0], monto);
+            }));
+            ArnesBenchmark.imprimirFila("Particionado (actores)", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                int[] t = transferencias[h % transferencias.length][siguiente[h]++ % 3];
+                long monto = t[2] * 100L;
+                libro.transferir(t[0], t[1], monto).join();
+                libro.transferir(t[1], t[0], monto).join();
+            }));
+            ArnesBenchmark.imprimirFila("Mapeado (VarHandle)", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                int[] t = transferencias[h % transferencias.length][siguiente[h]++ % 3];
+                long monto = t[2] * 100L;
+                mapeado.transferir(t[0], t[1], monto);
+                mapeado.transferir(t[1], t[0], monto);
+            }));
+            libro.cerrar();
+            mapeado.close();
+            Files.delete(archivo);
+        }
+
+        ArnesBenchmark.imprimirEncabezado("BENCHMARK nómina 0→1.." + TRAMOS_NOMINA + " y devolución");
+        for (int numHilos : ArnesBenchmark.hilos(1, 2, 4, 8, 16, 32)) {
+            CuentaBancariaSolucion[] cuentas = new CuentaBancariaSolucion[CUENTAS];
+            for (int i = 0; i < CUENTAS; i++) {
+                cuentas[i] = new CuentaBancariaSolucion(i, 1000 * (i + 1));
+            }
+            CuentaBancariaSolucion[] pagador = new CuentaBancariaSolucion[TRAMOS_NOMINA];
+            CuentaBancariaSolucion[] empleados = new CuentaBancariaSolucion[TRAMOS_NOMINA];
+            double[] sueldos = new double[TRAMOS_NOMINA];
+            for (int k = 0; k < TRAMOS_NOMINA; k++) {
+                pagador[k] = cuentas[0];
+                empleados[k] = cuentas[k + 1];
+                sueldos[k] = 50 * (k + 1);
+            }
+
+            ArnesBenchmark.imprimirFila(TRAMOS_NOMINA + " x transferir", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                for (int k = 0; k < TRAMOS_NOMINA; k++) {
+                    cuentas[0].transferir(empleados[k], sueldos[k]);
+                }
+                for (int k = 0; k < TRAMOS_NOMINA; k++) {
+                    empleados[k].transferir(cuentas[0], sueldos[k]);
+                }
+            }));
+            ArnesBenchmark.imprimirFila("transferirVarios (atómica)", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                cuentas[0].repartir(empleados, sueldos);
+                CuentaBancariaSolucion.transferirVarios(empleados, pagador, sueldos);
+            }));
+        }
+    }
+}
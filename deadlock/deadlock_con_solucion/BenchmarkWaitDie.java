@@ -0,0 +1,85 @@
+package deadlock.deadlock_con_solucion;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import benchmark.ArnesBenchmark;
+
+// Benchmark del modo transaccional wait-die (BancoWaitDie, orden origen→destino)
+// frente a los monitores ordenados de CuentaBancariaSolucion.transferir.
+//
+// - Carga TRANSFERENCIAS: ida y vuelta de las transferencias de la tabla
+//   (igual que BenchmarkTransferencias)
+// - Carga aleatoria de alta contención: pares origen/destino al azar entre
+//   CUENTAS_ALEATORIO cuentas, también ida y vuelta
+//
+// Tras cada fila wait-die se imprime la tasa de abortos (abortos por transacción confirmada).
+public class BenchmarkWaitDie {
+    static final int CUENTAS = 5;
+    static final int CUENTAS_ALEATORIO = 3;
+
+    public static void main(String[] args) throws InterruptedException {
+        CuentaBancariaSolucion.registro = new RegistroEventos(2, false);
+        CuentaBancariaSolucion.retardoSimuladoMs = 0;
+        int[][][] transferencias = CuentaBancariaSolucion.TRANSFERENCIAS;
+
+        ArnesBenchmark.imprimirEncabezado("BENCHMARK wait-die, carga TRANSFERENCIAS (" + CUENTAS + " cuentas)");
+        for (int numHilos : ArnesBenchmark.hilos(1, 2, 4, 8, 16, 32)) {
+            CuentaBancariaSolucion[] cuentas = crearCuentas(CUENTAS);
+            BancoWaitDie banco = new BancoWaitDie(saldosIniciales(CUENTAS));
+            int[] siguiente = new int[numHilos];
+
+            ArnesBenchmark.imprimirFila("Monitores ordenados", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                int[] t = transferencias[h % transferencias.length][siguiente[h]++ % 3];
+                cuentas[t[0]].transferir(cuentas[t[1]], t[2]);
+                cuentas[t[1]].transferir(cuentas[t[0]], t[2]);
+            }));
+            ArnesBenchmark.imprimirFila("Wait-die", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                int[] t = transferencias[h % transferencias.length][siguiente[h]++ % 3];
+                banco.transferir(t[0], t[1], t[2]);
+                banco.transferir(t[1], t[0], t[2]);
+            }));
+            imprimirAbortos(banco.getGestor());
+        }
+
+        ArnesBenchmark.imprimirEncabezado("BENCHMARK wait-die, pares aleatorios entre " + CUENTAS_ALEATORIO + " cuentas");
+        for (int numHilos : ArnesBenchmark.hilos(1, 2, 4, 8, 16, 32)) {
+            CuentaBancariaSolucion[] cuentas = crearCuentas(CUENTAS_ALEATORIO);
+            BancoWaitDie banco = new BancoWaitDie(saldosIniciales(CUENTAS_ALEATORIO));
+
+            ArnesBenchmark.imprimirFila("Monitores ordenados", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                int origen = ThreadLocalRandom.current().nextInt(CUENTAS_ALEATORIO);
+                int destino = (origen + 1 + ThreadLocalRandom.current().nextInt(CUENTAS_ALEATORIO - 1)) % CUENTAS_ALEATORIO;
+                cuentas[origen].transferir(cuentas[destino], 100);
+                cuentas[destino].transferir(cuentas[origen], 100);
+            }));
+            ArnesBenchmark.imprimirFila("Wait-die", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                int origen = ThreadLocalRandom.current().nextInt(CUENTAS_ALEATORIO);
+                int destino = (origen + 1 + ThreadLocalRandom.current().nextInt(CUENTAS_ALEATORIO - 1)) % CUENTAS_ALEATORIO;
+                banco.transferir(origen, destino, 100);
+                banco.transferir(destino, origen, 100);
+            }));
+            imprimirAbortos(banco.getGestor());
+        }
+    }
+
+    private static CuentaBancariaSolucion[] crearCuentas(int n) {
+        CuentaBancariaSolucion[] cuentas = new CuentaBancariaSolucion[n];
+        for (int i = 0; i < n; i++) {
+            cuentas[i] = new CuentaBancariaSolucion(i, 1000 * (i + 1));
+        }
+        return cuentas;
+    }
+
+    private static double[] saldosIniciales(int n) {
+        double[] saldos = new double[n];
+        for (int i = 0; i < n; i++) {
+            saldos[i] = 1000 * (i + 1);
+        }
+        return saldos;
+    }
+
+    private static void imprimirAbortos(GestorLocksWaitDie gestor) {
+        System.out.printf("%-28s   tasa de abortos %.4f (%,d abortos / %,d confirmadas, incluye calentamiento)%n",
+            "", gestor.getTasaAbortos(), gestor.getAbortos(), gestor.getConfirmadas());
+    }
+}
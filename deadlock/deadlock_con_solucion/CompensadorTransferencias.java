@@ -0,0 +1,288 @@
+package deadlock.deadlock_con_solucion;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import deadlock.deadlock_con_solucion.RegistroEventos.TipoEvento;
+
+/**
+ * Modo por LOTES con compensación (netting) de transferencias.
+ *
+ * En lugar de que cada transferencia bloquee sus dos cuentas, los hilos
+ * envían transferencias a una cola y un hilo compensador las agrupa durante
+ * una ventana corta (o hasta un máximo de transferencias por lote):
+ *
+ * 1. Bloquea UNA vez todas las cuentas afectadas, en orden de número de cuenta
+ * 2. Evalúa las transferencias en orden de llegada sobre saldos de trabajo,
+ *    con la misma regla de saldo insuficiente que transferir()
+ * 3. Escribe en cada cuenta solo su delta neto (p. ej. 0→1 y 1→0 se anulan)
+ * 4. Libera las cuentas y completa los futuros con el resultado de cada una
+ *
+ * Si aplicar un lote lanza una excepción, los futuros de ese lote terminan
+ * con ella y el compensador sigue con el siguiente. cerrar() aplica todo lo
+ * ya enviado y después rechaza nuevos envíos.
+ */
+public class CompensadorTransferencias {
+
+    private static final class Pendiente {
+        final CuentaBancariaSolucion origen;
+        final CuentaBancariaSolucion destino;
+        final double monto;
+        final CompletableFuture<Boolean> resultado = new CompletableFuture<>();
+
+        Pendiente(CuentaBancariaSolucion origen, CuentaBancariaSolucion destino, double monto) {
+            this.origen = origen;
+            this.destino = destino;
+            this.monto = monto;
+        }
+    }
+
+    // Marca de fin en la cola: todo lo enviado antes de cerrar() está delante
+    private static final Pendiente FIN = new Pendiente(null, null, 0);
+
+    private final LinkedBlockingQueue<Pendiente> pendientes = new LinkedBlockingQueue<>();
+    private final long ventanaMs;
+    private final int maxLote;
+    private final Thread compensador;
+    private volatile boolean cerrado = false;
+
+    // Estadísticas (solo las escribe el hilo compensador)
+    private volatile long lotesAplicados = 0;
+    private volatile long transferenciasAplicadas = 0;
+    private volatile long bloqueosDeCuenta = 0;
+
+    public CompensadorTransferencias(long ventanaMs, int maxLote) {
+        this.ventanaMs = ventanaMs;
+        this.maxLote = maxLote;
+        this.compensador = new Thread(this::procesarLotes, "Compensador");
+        this.compensador.setDaemon(true);
+        this.compensador.start();
+    }
+
+    // Encola la transferencia; el futuro se completa con true (exitosa) o false (saldo insuficiente).
+    // Tras cerrar() lanza IllegalStateException.
+    public CompletableFuture<Boolean> enviar(CuentaBancariaSolucion origen, CuentaBancariaSolucion destino, double monto) {
+        if (cerrado) {
+            throw new IllegalStateException("compensador cerrado");
+        }
+        Pendiente p = new Pendiente(origen, destino, monto);
+        pendientes.add(p);
+        // Carrera con cerrar(): si ya cerró y nadie la ha tomado, retirarla.
+        // Si no la encontramos, el compensador o cerrar() la completarán.
+        if (cerrado && pendientes.remove(p)) {
+            throw new IllegalStateException("compensador cerrado");
+        }
+        return p.resultado;
+    }
+
+    // Aplica lo ya enviado, detiene el compensador y rechaza envíos posteriores
+    public void cerrar() {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        pendientes.add(FIN);
+        try {
+            compensador.join();
+        } catch (InterruptedException e) {
+            compensador.interrupt();
+            Thread.currentThread().interrupt();
+        }
+        // Lo que quedó detrás de FIN (envíos en carrera con cerrar) no se aplica
+        fallarPendientes(new ArrayList<>(), new IllegalStateException("compensador cerrado"));
+    }
+
+    private void procesarLotes() {
+        List<Pendiente> lote = new ArrayList<>(maxLote);
+        boolean fin = false;
+        try {
+            while (!fin) {
+                // Espera la primera transferencia y abre la ventana del lote
+                Pendiente primera = pendientes.take();
+                if (primera == FIN) {
+                    break;
+                }
+                lote.add(primera);
+                long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ventanaMs);
+                while (lote.size() < maxLote) {
+                    long restante = limite - System.nanoTime();
+                    Pendiente p = restante > 0 ? pendientes.poll(restante, TimeUnit.NANOSECONDS) : pendientes.poll();
+                    if (p == null) {
+                        break;
+                    }
+                    if (p == FIN) {
+                        fin = true;
+                        break;
+                    }
+                    lote.add(p);
+                }
+                try {
+                    aplicarLote(lote);
+                } catch (RuntimeException | Error e) {
+                    // Solo falla este lote: sus futuros terminan con la excepción
+                    for (Pendiente p : lote) {
+                        p.resultado.completeExceptionally(e);
+                    }
+                }
+                lote.clear();
+            }
+        } catch (InterruptedException e) {
+            // Interrumpido sin cerrar(): nada de lo pendiente se aplicará
+            fallarPendientes(lote, new IllegalStateException("compensador interrumpido"));
+        }
+    }
+
+    // Completa con 'causa' el lote en curso y todo lo que siga en la cola
+    private void fallarPendientes(List<Pendiente> lote, RuntimeException causa) {
+        pendientes.drainTo(lote);
+        for (Pendiente p : lote) {
+            if (p != FIN) {
+                p.resultado.completeExceptionally(causa);
+            }
+        }
+        lote.clear();
+    }
+
+    private void aplicarLote(List<Pendiente> lote) {
+        // Saldos de trabajo por cuenta afectada (en orden de aparición)
+        Map<CuentaBancariaSolucion, double[]> trabajo = new LinkedHashMap<>();
+        for (Pendiente p : lote) {
+            trabajo.putIfAbsent(p.origen, new double[2]);
+            trabajo.putIfAbsent(p.destino, new double[2]);
+        }
+        boolean[] exitos = new boolean[lote.size()];
+        // Saldo del origen en el momento de rechazar cada transferencia
+        double[] saldoAlRechazar = new double[lote.size()];
+
+        DiarioTransferencias diario = CuentaBancariaSolucion.diario;
+        long[] ultima = {0};
+
+        CuentaBancariaSolucion[] afectadas = trabajo.keySet().toArray(new CuentaBancariaSolucion[0]);
+        CuentaBancariaSolucion.conCuentasBloqueadas(afectadas, () -> {
+            // [0] = saldo de trabajo, [1] = saldo al inicio del lote
+            for (Map.Entry<CuentaBancariaSolucion, double[]> e : trabajo.entrySet()) {
+                e.getValue()[0] = e.getKey().saldoBloqueado();
+                e.getValue()[1] = e.getValue()[0];
+            }
+            for (int i = 0; i < lote.size(); i++) {
+                Pendiente p = lote.get(i);
+                double[] origen = trabajo.get(p.origen);
+                if (origen[0] >= p.monto) {
+                    origen[0] -= p.monto;
+                    trabajo.get(p.destino)[0] += p.monto;
+                    exitos[i] = true;
+                } else {
+                    saldoAlRechazar[i] = origen[0];
+                }
+            }
+            // Un solo ajuste neto por cuenta
+            for (Map.Entry<CuentaBancariaSolucion, double[]> e : trabajo.entrySet()) {
+                double neto = e.getValue()[0] - e.getValue()[1];
+                if (neto != 0) {
+                    e.getKey().ajustarSaldo(neto);
+                }
+            }
+            // Anotar con las cuentas bloqueadas: el diario queda en el mismo orden que los saldos
+            if (diario != null) {
+                for (int i = 0; i < lote.size(); i++) {
+                    if (exitos[i]) {
+                        Pendiente p = lote.get(i);
+                        ultima[0] = diario.anotar(p.origen.getNumeroCuenta(), p.destino.getNumeroCuenta(), p.monto);
+                    }
+                }
+            }
+        });
+
+        lotesAplicados++;
+        transferenciasAplicadas += lote.size();
+        bloqueosDeCuenta += afectadas.length;
+
+        // Fuera de los locks: registrar, esperar el fsync y notificar resultados
+        for (int i = 0; i < lote.size(); i++) {
+            Pendiente p = lote.get(i);
+            if (exitos[i]) {
+                CuentaBancariaSolucion.registro().registrar(TipoEvento.EXITO,
+                    p.origen.getNumeroCuenta(), p.destino.getNumeroCuenta(), p.monto);
+            } else {
+                CuentaBancariaSolucion.registro().registrar(TipoEvento.SALDO_INSUFICIENTE,
+                    p.origen.getNumeroCuenta(), -1, saldoAlRechazar[i]);
+            }
+        }
+        if (ultima[0] > 0) {
+            CuentaBancariaSolucion.esperarDiario(diario, ultima[0]); // Un solo fsync para todo el lote
+        }
+        for (int i = 0; i < lote.size(); i++) {
+            lote.get(i).resultado.complete(exitos[i]);
+        }
+    }
+
+    public long getLotesAplicados() {
+        return lotesAplicados;
+    }
+
+    public long getTransferenciasAplicadas() {
+        return transferenciasAplicadas;
+    }
+
+    // Monitores de cuenta adquiridos en total (transferir() toma 2 por transferencia)
+    public long getBloqueosDeCuenta() {
+        return bloqueosDeCuenta;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int[][][] transferencias = CuentaBancariaSolucion.TRANSFERENCIAS;
+        CuentaBancariaSolucion[] cuentas = new CuentaBancariaSolucion[5];
+        for (int i = 0; i < 5; i++) {
+            cuentas[i] = new CuentaBancariaSolucion(i, 1000 * (i + 1));
+        }
+        double totalInicial = 0;
+        for (CuentaBancariaSolucion cuenta : cuentas) {
+            totalInicial += cuenta.getSaldo();
+        }
+
+        System.out.println("TABLA DE TRANSFERENCIAS PLANIFICADAS (MODO POR LOTES):\n");
+        CuentaBancariaSolucion.imprimirTablaTransferencias(transferencias);
+        System.out.println();
+
+        CompensadorTransferencias compensador = new CompensadorTransferencias(5, 64);
+        Thread[] threads = new Thread[transferencias.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int threadNum = i;
+            threads[i] = new Thread(() -> {
+                List<CompletableFuture<Boolean>> resultados = new ArrayList<>();
+                for (int[] t : transferencias[threadNum]) {
+                    resultados.add(compensador.enviar(cuentas[t[0]], cuentas[t[1]], t[2]));
+                }
+                resultados.forEach(CompletableFuture::join);
+                CuentaBancariaSolucion.registro().registrar(TipoEvento.COMPLETO, -1, -1, 0);
+            }, "Thread-" + (i + 1));
+        }
+        for (Thread t : threads) t.start();
+        for (Thread t : threads) t.join();
+        compensador.cerrar();
+        CuentaBancariaSolucion.registro().vaciar();
+
+        System.out.println("\nSALDOS FINALES:");
+        System.out.println("─────────────────────────────────");
+        double totalFinal = 0;
+        for (CuentaBancariaSolucion cuenta : cuentas) {
+            System.out.printf("  Cuenta %d: $%-6.0f\n", cuenta.getNumeroCuenta(), cuenta.getSaldo());
+            totalFinal += cuenta.getSaldo();
+        }
+        System.out.println("─────────────────────────────────");
+        System.out.printf("  Total:    $%-6.0f\n", totalFinal);
+
+        System.out.println("\nLotes aplicados: " + compensador.getLotesAplicados() +
+            " para " + compensador.getTransferenciasAplicadas() + " transferencias");
+        System.out.println("Monitores adquiridos: " + compensador.getBloqueosDeCuenta() +
+            " (transferir() uno a uno habría tomado " + 2 * compensador.getTransferenciasAplicadas() + ")");
+        System.out.println(totalFinal == totalInicial
+            ? "\n✅ Total conservado: no se creó ni destruyó dinero"
+            : "\n⚠️  El total cambió: revisar la compensación");
+    }
+}
@@ -1,21 +1,64 @@
 package deadlock.deadlock_con_solucion;
   import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+import deadlock.DetectorDeadlock;
+import deadlock.deadlock_con_solucion.RegistroEventos.TipoEvento;
 public class CuentaBancariaSolucion {
     private final int numeroCuenta;
     private double saldo;
-    private static final DateTimeFormatter formatter = 
-        DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    // Lecturas sin monitor: getSaldo() y las instantáneas leen de forma optimista
+    // y validan el sello. Los escritores, que ya tienen el monitor de la cuenta,
+    // toman además el writeLock mientras modifican el saldo (nunca compiten entre sí).
+    private final StampedLock sello = new StampedLock();
+    
+    // Los eventos se registran en memoria y un hilo aparte los imprime:
+    // ninguna escritura en consola ocurre mientras se tiene el lock de una cuenta.
+    // Los benchmarks instalan uno inactivo; si nadie lo hace, registro() crea el
+    // de consola (y su hilo escritor) al primer uso, no al cargar la clase
+    static volatile RegistroEventos registro = null;
+    
+    static RegistroEventos registro() {
+        RegistroEventos actual = registro;
+        if (actual == null) {
+            synchronized (CuentaBancariaSolucion.class) {
+                if (registro == null) {
+                    registro = new RegistroEventos(1024);
+                }
+                actual = registro;
+            }
+        }
+        return actual;
+    }
+    
+    // Pausa tras cada transferencia exitosa para que los logs se lean (0 en benchmarks)
+    static long retardoSimuladoMs = 100;
+    // Diario opcional: si está activo, cada transferencia exitosa espera a estar
+    // en disco antes de volver (la espera ocurre fuera de los monitores)
+    static DiarioTransferencias diario = null;
+    
+    // Carga de trabajo: 10 threads x 3 transferencias {origen, destino, monto}
+    // entre 5 cuentas con saldo inicial 1000 * (i + 1)
+    static final int[][][] TRANSFERENCIAS = {
+        {{0,1,200}, {1,2,300}, {2,0,150}},  // Thread 1
+        {{1,0,250}, {0,2,100}, {2,1,200}},  // Thread 2
+        {{2,3,300}, {3,4,400}, {4,2,250}},  // Thread 3
+        {{3,2,350}, {2,4,200}, {4,3,300}},  // Thread 4
+        {{4,0,400}, {0,3,250}, {3,4,150}},  // Thread 5
+        {{0,4,300}, {4,1,350}, {1,0,200}},  // Thread 6
+        {{1,3,250}, {3,0,300}, {0,1,150}},  // Thread 7
+        {{2,1,200}, {1,4,250}, {4,2,300}},  // Thread 8
+        {{3,1,300}, {1,2,200}, {2,3,250}},  // Thread 9
+        {{4,3,350}, {3,2,250}, {2,4,200}}   // Thread 10
+    };
     
     public CuentaBancariaSolucion(int numeroCuenta, double saldoInicial) {
         this.numeroCuenta = numeroCuenta;
         this.saldo = saldoInicial;
     }
     
-    private static String getTimestamp() {
-        return LocalDateTime.now().format(formatter);
-    }
-    
     public void transferir(CuentaBancariaSolucion destino, double monto) {
         final CuentaBancariaSolucion primera;
         final CuentaBancariaSolucion segunda;
@@ -28,48 +71,278 @@ public class CuentaBancariaSolucion {
             segunda = this;
         }
 
-        System.out.println("[" + getTimestamp() + "] 🔄 " + Thread.currentThread().getName() + 
-            " INTENTA bloquear cuentas " + primera.numeroCuenta + " y " + segunda.numeroCuenta + 
-            " (orden: menor→mayor)");
+        registro().registrar(TipoEvento.INTENTA_BLOQUEAR, primera.numeroCuenta, segunda.numeroCuenta, 0);
         
+        DiarioTransferencias d = diario;
+        boolean exito;
+        long secuencia = 0;
         synchronized (primera) {
-            System.out.println("[" + getTimestamp() + "] 🔒 " + Thread.currentThread().getName() + 
-                " BLOQUEÓ cuenta " + primera.numeroCuenta);
+            registro().registrar(TipoEvento.BLOQUEO, primera.numeroCuenta, -1, 0);
             
             synchronized (segunda) {
-                System.out.println("[" + getTimestamp() + "] 🔒 " + Thread.currentThread().getName() + 
-                    " BLOQUEÓ cuenta " + segunda.numeroCuenta);
+                registro().registrar(TipoEvento.BLOQUEO, segunda.numeroCuenta, -1, 0);
                 
                 // ✅ Ahora estamos seguros: tenemos ambos locks, sin riesgo de deadlock.
                 // Realizamos la operación atómica completa:
-                if (this.saldo >= monto) { // 'this' sigue siendo el origen lógico
+                exito = this.saldo >= monto; // 'this' sigue siendo el origen lógico
+                if (exito) {
+                    // Ambos writeLock antes de escribir: una lectura optimista
+                    // nunca ve el débito sin el crédito
+                    long selloPrimera = primera.sello.writeLock();
+                    long selloSegunda = segunda != primera ? segunda.sello.writeLock() : 0;
                     this.saldo -= monto;
                     destino.saldo += monto; // Acceso directo válido: ya tenemos lock de ambas
-                    
-                    // Simular procesamiento (solo para logs visibles)
-                    try { Thread.sleep(100); } catch (InterruptedException e) {}
-                    
-                    System.out.println("[" + getTimestamp() + "] ✓ " + Thread.currentThread().getName() + 
-                        ": Transferencia exitosa " + this.numeroCuenta + "→" + 
-                        destino.numeroCuenta + ", $" + String.format("%.0f", monto));
+                    if (segunda != primera) segunda.sello.unlockWrite(selloSegunda);
+                    primera.sello.unlockWrite(selloPrimera);
+                    // Anotar con los monitores tomados: el diario queda en el mismo orden que los saldos
+                    if (d != null) {
+                        secuencia = d.anotar(this.numeroCuenta, destino.numeroCuenta, monto);
+                    }
+                    registro().registrar(TipoEvento.EXITO, this.numeroCuenta, destino.numeroCuenta, monto);
                 } else {
-                    System.out.println("[" + getTimestamp() + "] ✗ " + Thread.currentThread().getName() + 
-                        ": Saldo insuficiente en cuenta " + this.numeroCuenta +
-                        " (saldo: $" + String.format("%.0f", this.saldo) + ")");
+                    registro().registrar(TipoEvento.SALDO_INSUFICIENTE, this.numeroCuenta, -1, this.saldo);
                 }
             }
-            System.out.println("[" + getTimestamp() + "] ✅ " + Thread.currentThread().getName() + 
-                " LIBERÓ cuenta " + segunda.numeroCuenta);
+            registro().registrar(TipoEvento.LIBERO, segunda.numeroCuenta, -1, 0);
+        }
+        registro().registrar(TipoEvento.LIBERO, primera.numeroCuenta, -1, 0);
+        
+        if (secuencia > 0) {
+            esperarDiario(d, secuencia); // El fsync, en cambio, ya sin locks
+        }
+        
+        // Simular procesamiento (solo para logs visibles), ya sin locks tomados
+        if (exito && retardoSimuladoMs > 0) {
+            try { Thread.sleep(retardoSimuladoMs); } catch (InterruptedException e) {}
         }
-        System.out.println("[" + getTimestamp() + "] ✅ " + Thread.currentThread().getName() + 
-            " LIBERÓ cuenta " + primera.numeroCuenta);
     }
     
     
-    public double getSaldo() {
+    // Ejecuta 'accion' con los monitores de todas las cuentas tomados en orden
+    // de numeroCuenta (menor→mayor): la misma regla que evita el deadlock en
+    // transferir, generalizada a N cuentas. Las cuentas repetidas se bloquean una vez.
+    // Durante 'accion' se tiene el writeLock de todas: puede modificar varios
+    // saldos y las instantáneas verán todos los cambios o ninguno. Dentro de
+    // 'accion' se usa saldoBloqueado(), no getSaldo() (StampedLock no es reentrante).
+    static void conCuentasBloqueadas(CuentaBancariaSolucion[] cuentas, Runnable accion) {
+        conCuentasBloqueadas(cuentas, cuentas.length, accion);
+    }
+    
+    // Igual, con solo las primeras n posiciones de 'cuentas'
+    static void conCuentasBloqueadas(CuentaBancariaSolucion[] cuentas, int n, Runnable accion) {
+        // Ordenación por inserción sin duplicados: son pocas cuentas y se evita
+        // el coste de streams/colecciones en cada operación
+        CuentaBancariaSolucion[] ordenadas = new CuentaBancariaSolucion[n];
+        int distintas = 0;
+        for (int i = 0; i < n; i++) {
+            CuentaBancariaSolucion cuenta = cuentas[i];
+            int j = distintas;
+            while (j > 0 && ordenadas[j - 1].numeroCuenta > cuenta.numeroCuenta) {
+                j--;
+            }
+            if (j > 0 && ordenadas[j - 1] == cuenta) {
+                continue; // Repetida
+            }
+            System.arraycopy(ordenadas, j, ordenadas, j + 1, distintas - j);
+            ordenadas[j] = cuenta;
+            distintas++;
+        }
+        bloquearDesde(ordenadas, 0, distintas, accion);
+    }
+    
+    private static void bloquearDesde(CuentaBancariaSolucion[] ordenadas, int i, int n, Runnable accion) {
+        if (i == n) {
+            long[] sellos = new long[n];
+            for (int c = 0; c < n; c++) {
+                sellos[c] = ordenadas[c].sello.writeLock();
+            }
+            try {
+                accion.run();
+            } finally {
+                for (int c = n - 1; c >= 0; c--) {
+                    ordenadas[c].sello.unlockWrite(sellos[c]);
+                }
+            }
+            return;
+        }
+        synchronized (ordenadas[i]) {
+            bloquearDesde(ordenadas, i + 1, n, accion);
+        }
+    }
+    
+    // Transferencia de VARIOS tramos (origenes[i] → destinos[i], montos[i]) en
+    // una sola operación atómica: pagos divididos (1→N), nóminas o cobros (N→1).
+    // - Bloquea una sola vez todas las cuentas involucradas, en orden de numeroCuenta
+    // - Valida los tramos en orden sobre saldos de trabajo (un tramo puede usar
+    //   lo acreditado por uno anterior)
+    // - Si algún tramo no tiene fondos no se aplica ninguno; si no, cada cuenta
+    //   recibe un único ajuste con su delta neto
+    // Devuelve true si se aplicaron todos los tramos.
+    public static boolean transferirVarios(CuentaBancariaSolucion[] origenes,
+                                           CuentaBancariaSolucion[] destinos, double[] montos) {
+        if (origenes.length != destinos.length || origenes.length != montos.length) {
+            throw new IllegalArgumentException("origenes, destinos y montos deben tener la misma longitud");
+        }
+        int tramos = montos.length;
+        // Cuentas distintas involucradas; pocas por operación, basta una búsqueda lineal.
+        // indices[2i] / indices[2i+1] = posición del origen / destino del tramo i
+        final CuentaBancariaSolucion[] cuentas = new CuentaBancariaSolucion[2 * tramos];
+        final int[] indices = new int[2 * tramos];
+        int n = 0;
+        for (int i = 0; i < tramos; i++) {
+            indices[2 * i] = indiceDe(cuentas, n, origenes[i]);
+            if (indices[2 * i] == n) cuentas[n++] = origenes[i];
+            indices[2 * i + 1] = indiceDe(cuentas, n, destinos[i]);
+            if (indices[2 * i + 1] == n) cuentas[n++] = destinos[i];
+        }
+        final int numCuentas = n;
+        final double[] trabajo = new double[numCuentas];
+        final int[] tramoFallido = {-1};
+        final DiarioTransferencias d = diario;
+        final long[] ultima = {0};
+
+        conCuentasBloqueadas(cuentas, numCuentas, () -> {
+            for (int c = 0; c < numCuentas; c++) {
+                trabajo[c] = cuentas[c].saldo;
+            }
+            for (int i = 0; i < tramos; i++) {
+                if (trabajo[indices[2 * i]] < montos[i]) {
+                    tramoFallido[0] = i;
+                    return; // Todo o nada: no se escribe ninguna cuenta
+                }
+                trabajo[indices[2 * i]] -= montos[i];
+                trabajo[indices[2 * i + 1]] += montos[i];
+            }
+            for (int c = 0; c < numCuentas; c++) {
+                cuentas[c].saldo = trabajo[c];
+            }
+            // Anotar con los monitores tomados: el diario queda en el mismo orden que los saldos
+            if (d != null) {
+                for (int i = 0; i < tramos; i++) {
+                    ultima[0] = d.anotar(origenes[i].numeroCuenta, destinos[i].numeroCuenta, montos[i]);
+                }
+            }
+        });
+
+        // Fuera de los locks: registrar el resultado y esperar el fsync
+        boolean exito = tramoFallido[0] < 0;
+        if (exito) {
+            for (int i = 0; i < tramos; i++) {
+                registro().registrar(TipoEvento.EXITO, origenes[i].numeroCuenta, destinos[i].numeroCuenta, montos[i]);
+            }
+            if (ultima[0] > 0) {
+                esperarDiario(d, ultima[0]);
+            }
+        } else {
+            int i = tramoFallido[0];
+            registro().registrar(TipoEvento.SALDO_INSUFICIENTE, origenes[i].numeroCuenta, -1, trabajo[indices[2 * i]]);
+        }
+        if (exito && retardoSimuladoMs > 0) {
+            try { Thread.sleep(retardoSimuladoMs); } catch (InterruptedException e) {}
+        }
+        return exito;
+    }
+    
+    // Pago dividido desde esta cuenta: un débito repartido entre varios destinos
+    public boolean repartir(CuentaBancariaSolucion[] destinos, double[] montos) {
+        CuentaBancariaSolucion[] origenes = new CuentaBancariaSolucion[destinos.length];
+        Arrays.fill(origenes, this);
+        return transferirVarios(origenes, destinos, montos);
+    }
+    
+    // Espera al fsync del grupo; nunca se llama con monitores de cuentas tomados
+    static void esperarDiario(DiarioTransferencias d, long secuencia) {
+        try {
+            d.esperarDuracion(secuencia);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static int indiceDe(CuentaBancariaSolucion[] cuentas, int n, CuentaBancariaSolucion cuenta) {
+        for (int i = 0; i < n; i++) {
+            if (cuentas[i] == cuenta) return i;
+        }
+        return n;
+    }
+    
+    // Solo dentro de conCuentasBloqueadas (monitor y writeLock tomados)
+    void ajustarSaldo(double delta) {
+        this.saldo += delta;
+    }
+    
+    // Solo dentro de conCuentasBloqueadas
+    double saldoBloqueado() {
         return saldo;
     }
     
+    // Lectura optimista: sin bloquear ni escribir memoria compartida; si una
+    // transferencia la invalidó, se repite con el readLock (espera solo a esa escritura)
+    public double getSaldo() {
+        long s = sello.tryOptimisticRead();
+        double valor = saldo;
+        if (!sello.validate(s)) {
+            s = sello.readLock();
+            try {
+                valor = saldo;
+            } finally {
+                sello.unlockRead(s);
+            }
+        }
+        return valor;
+    }
+    
+    // Vista de todos los saldos en un mismo instante
+    public static final class Instantanea {
+        public final double[] saldos;
+        public final double total;
+        // Recolecciones necesarias (> 1 si hubo transferencias concurrentes)
+        public final int intentos;
+        
+        Instantanea(double[] saldos, double total, int intentos) {
+            this.saldos = saldos;
+            this.total = total;
+            this.intentos = intentos;
+        }
+    }
+    
+    // Instantánea consistente SIN BLOQUEAR a las transferencias en curso: tomar
+    // un sello optimista de cada cuenta, leer los saldos y validar todos los
+    // sellos. Si ninguno se invalidó, ninguna escritura se solapó con la lectura
+    // y los saldos corresponden a un mismo instante; si no, se reintenta.
+    public static Instantanea instantanea(CuentaBancariaSolucion[] cuentas) {
+        int n = cuentas.length;
+        long[] sellos = new long[n];
+        double[] saldos = new double[n];
+        for (int intento = 1; ; intento++) {
+            boolean estable = true;
+            for (int i = 0; i < n && estable; i++) {
+                sellos[i] = cuentas[i].sello.tryOptimisticRead();
+                estable = sellos[i] != 0; // 0 = con writeLock tomado
+            }
+            if (estable) {
+                for (int i = 0; i < n; i++) {
+                    saldos[i] = cuentas[i].saldo;
+                }
+                for (int i = 0; i < n && estable; i++) {
+                    estable = cuentas[i].sello.validate(sellos[i]);
+                }
+            }
+            if (estable) {
+                double total = 0;
+                for (double saldo : saldos) {
+                    total += saldo;
+                }
+                return new Instantanea(saldos, total, intento);
+            }
+            if (intento < 32) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield(); // El escritor puede estar desalojado: cederle la CPU
+            }
+        }
+    }
+    
     public int getNumeroCuenta() {
         return numeroCuenta;
     }
@@ -95,18 +368,7 @@ public class CuentaBancariaSolucion {
     
     
     public static void main(String[] args) {
-        int[][][] transferencias = {
-            {{0,1,200}, {1,2,300}, {2,0,150}},  // Thread 1
-            {{1,0,250}, {0,2,100}, {2,1,200}},  // Thread 2
-            {{2,3,300}, {3,4,400}, {4,2,250}},  // Thread 3
-            {{3,2,350}, {2,4,200}, {4,3,300}},  // Thread 4
-            {{4,0,400}, {0,3,250}, {3,4,150}},  // Thread 5
-            {{0,4,300}, {4,1,350}, {1,0,200}},  // Thread 6
-            {{1,3,250}, {3,0,300}, {0,1,150}},  // Thread 7
-            {{2,1,200}, {1,4,250}, {4,2,300}},  // Thread 8
-            {{3,1,300}, {1,2,200}, {2,3,250}},  // Thread 9
-            {{4,3,350}, {3,2,250}, {2,4,200}}   // Thread 10
-        };
+        int[][][] transferencias = TRANSFERENCIAS;
         
         CuentaBancariaSolucion[] cuentas = new CuentaBancariaSolucion[5];
         for (int i = 0; i < 5; i++) {
@@ -134,6 +396,31 @@ public class CuentaBancariaSolucion {
             DateTimeFormatter.ofPattern("HH:mm:ss.SSS")));
         System.out.println("═══════════════════════════════════════════════════════════════════════════════════════════════════\n");
         
+        // Detector de deadlocks: intervalo de muestreo con -Ddetector.intervaloMs (10 ms por defecto)
+        DetectorDeadlock detector = new DetectorDeadlock(Long.getLong("detector.intervaloMs", 10));
+        for (CuentaBancariaSolucion cuenta : cuentas) {
+            detector.registrarRecurso(cuenta, "cuenta " + cuenta.getNumeroCuenta());
+        }
+        detector.iniciar();
+        
+        // Auditor: comprueba la conservación del total con instantáneas mientras
+        // las transferencias están en curso (sin bloquearlas)
+        final double totalEsperado = totalInicial;
+        long[] auditoria = new long[3]; // {instantáneas, violaciones, reintentos}
+        Thread auditor = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                Instantanea vista = instantanea(cuentas);
+                auditoria[0]++;
+                auditoria[2] += vista.intentos - 1;
+                if (vista.total != totalEsperado) {
+                    auditoria[1]++;
+                }
+                try { Thread.sleep(1); } catch (InterruptedException e) { return; }
+            }
+        }, "Auditor");
+        auditor.setDaemon(true);
+        auditor.start();
+        
         Thread[] threads = new Thread[10];
         for (int i = 0; i < 10; i++) {
             final int threadNum = i;
@@ -143,36 +430,37 @@ public class CuentaBancariaSolucion {
                     int destino = transferencias[threadNum][j][1];
                     int monto = transferencias[threadNum][j][2];
                     
-                    System.out.println("[" + getTimestamp() + "] ▶️  " + Thread.currentThread().getName() + 
-                        " inicia Transferencia " + (j+1) + ": " + origen + "→" + destino + ", $" + monto);
+                    registro().registrar(TipoEvento.INICIA_TRANSFERENCIA, Thread.currentThread().getName(),
+                        origen, destino, monto, j + 1);
                     
                     cuentas[origen].transferir(cuentas[destino], monto);
                     
                     try { Thread.sleep(15); } catch (InterruptedException e) {}
                 }
-                System.out.println("[" + getTimestamp() + "] 🏁 " + Thread.currentThread().getName() + 
-                    " COMPLETÓ todas sus transferencias");
+                registro().registrar(TipoEvento.COMPLETO, -1, -1, 0);
             }, "Thread-" + (i + 1));
         }
         
         System.out.println("🚀 Iniciando threads en orden secuencial...\n");
         for (int i = 0; i < 10; i++) {
-            System.out.println("[" + getTimestamp() + "] Iniciando " + threads[i].getName() + "...");
+            registro().registrar(TipoEvento.INICIANDO_HILO, threads[i].getName(), -1, -1, 0, 0);
             threads[i].start();
             try { Thread.sleep(17); } catch (InterruptedException e) {}
         }
         
         
         boolean deadlockDetectado = false;
-        for (Thread thread : threads) {
-            try {
-                thread.join(3000); // Aumentamos a 3 segundos (3000 ms) para dar más margen
-                if (thread.isAlive()) {
-                    deadlockDetectado = true;
-                }
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+        try {
+            deadlockDetectado = detector.esperarHilos(threads);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        detector.detener();
+        auditor.interrupt();
+        try { auditor.join(); } catch (InterruptedException e) {}
+        registro().vaciar(); // Imprimir los eventos pendientes antes del resumen
+        if (registro().getDescartados() > 0) {
+            System.out.println("(" + registro().getDescartados() + " eventos descartados: buffer del registro lleno)");
         }
         
         System.out.println("\n═══════════════════════════════════════════════════════════════════════════════════════════════════");
@@ -199,6 +487,9 @@ public class CuentaBancariaSolucion {
             System.out.println("\n✅ Todas las transferencias completadas exitosamente");
             System.out.println("   • Sin deadlock gracias al ordenamiento estricto de recursos (ID menor → ID mayor)");
         }
+        detector.imprimirInforme();
+        System.out.printf("  Auditor: %d instantáneas durante la ejecución, %d con total distinto de $%.0f (%d reintentos)%n",
+            auditoria[0], auditoria[1], totalInicial, auditoria[2]);
     }
 
 }
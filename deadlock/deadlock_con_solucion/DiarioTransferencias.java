@@ -0,0 +1,285 @@
+package deadlock.deadlock_con_solucion;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Diario (write-ahead log) de transferencias con COMMIT EN GRUPO.
+ *
+ * Cada transferencia exitosa se anota como un registro de tamaño fijo en un
+ * archivo de solo-añadir. Un hilo escritor agrupa todo lo anotado durante una
+ * ventana de 'ventanaMs' y lo escribe con un único FileChannel.force(): muchas
+ * transferencias pagan un solo fsync.
+ *
+ * - anotar() solo copia el registro a un buffer en memoria (rápido); se llama
+ *   CON los monitores de las cuentas tomados, así dos transferencias sobre una
+ *   misma cuenta quedan en el diario en el orden en que se aplicaron
+ * - esperarDuracion() bloquea hasta que el registro está en disco; se llama
+ *   SIEMPRE fuera de los monitores de las cuentas, así el fsync no alarga el
+ *   tiempo de retención de ningún lock
+ * - reproducir() reconstruye los saldos al arrancar: saldo inicial + deltas
+ *   de todos los registros válidos (un registro final incompleto se descarta)
+ *
+ * Registro (32 bytes): secuencia, origen, destino, monto y un valor de control.
+ */
+public class DiarioTransferencias implements AutoCloseable {
+    static final int TAMANO_REGISTRO = 32;
+
+    private final FileChannel canal;
+    private final long ventanaMs;
+    private final Thread escritor;
+
+    // Protegidos por 'this' ('cerrado' también se lee sin lock)
+    private ByteBuffer pendientes = ByteBuffer.allocate(64 * TAMANO_REGISTRO);
+    private ByteBuffer enEscritura = ByteBuffer.allocate(64 * TAMANO_REGISTRO);
+    private long ultimaSecuencia;
+    private long secuenciaDurable;
+    private volatile boolean cerrado = false;
+    private IOException error = null;
+
+    // Estadísticas
+    private volatile long forzados = 0;
+    private volatile long registrosEscritos = 0;
+
+    public DiarioTransferencias(Path ruta, long ventanaMs) throws IOException {
+        this.canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        // Descartar un registro final incompleto (caída a mitad de escritura)
+        long validos = contarRegistrosValidos(ruta);
+        canal.truncate(validos * TAMANO_REGISTRO);
+        canal.position(validos * TAMANO_REGISTRO);
+        this.ultimaSecuencia = validos;
+        this.secuenciaDurable = validos;
+        this.ventanaMs = ventanaMs;
+        this.escritor = new Thread(this::escribirLotes, "DiarioTransferencias");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    // Añade el registro al lote en curso y devuelve su número de secuencia
+    public synchronized long anotar(int origen, int destino, double monto) {
+        if (cerrado) {
+            throw new IllegalStateException("diario cerrado");
+        }
+        if (pendientes.remaining() < TAMANO_REGISTRO) {
+            ByteBuffer mayor = ByteBuffer.allocate(pendientes.capacity() * 2);
+            pendientes.flip();
+            mayor.put(pendientes);
+            pendientes = mayor;
+        }
+        long secuencia = ++ultimaSecuencia;
+        pendientes.putLong(secuencia).putInt(origen).putInt(destino).putDouble(monto)
+            .putLong(control(secuencia, origen, destino, monto));
+        if (pendientes.position() == TAMANO_REGISTRO) {
+            notifyAll(); // Primer registro del lote: despertar al escritor
+        }
+        return secuencia;
+    }
+
+    // Bloquea hasta que el registro 'secuencia' (y todos los anteriores) está en disco
+    public synchronized void esperarDuracion(long secuencia) throws InterruptedException {
+        while (secuenciaDurable < secuencia) {
+            if (error != null) {
+                throw new UncheckedIOException(error);
+            }
+            wait();
+        }
+    }
+
+    private void escribirLotes() {
+        try {
+            while (true) {
+                long hasta;
+                synchronized (this) {
+                    while (pendientes.position() == 0 && !cerrado) {
+                        wait();
+                    }
+                    if (pendientes.position() == 0) {
+                        return; // Cerrado y sin nada pendiente
+                    }
+                }
+                // Ventana de agrupación: seguir aceptando registros antes del fsync
+                if (ventanaMs > 0 && !cerrado) {
+                    Thread.sleep(ventanaMs);
+                }
+                ByteBuffer lote;
+                synchronized (this) {
+                    lote = pendientes;
+                    pendientes = enEscritura;
+                    enEscritura = lote;
+                    hasta = ultimaSecuencia;
+                }
+                // Escritura y fsync sin ningún lock tomado: los hilos siguen anotando
+                lote.flip();
+                int registros = lote.remaining() / TAMANO_REGISTRO;
+                while (lote.hasRemaining()) {
+                    canal.write(lote);
+                }
+                canal.force(false);
+                lote.clear();
+                forzados++;
+                registrosEscritos += registros;
+                synchronized (this) {
+                    secuenciaDurable = hasta;
+                    notifyAll();
+                }
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                error = e;
+                notifyAll();
+            }
+        } catch (InterruptedException e) {
+            // Sin escritor nada más será durable: fallar a quien espera, igual que con un IOException
+            InterruptedIOException interrumpido = new InterruptedIOException("escritor del diario interrumpido");
+            interrumpido.initCause(e);
+            synchronized (this) {
+                error = interrumpido;
+                notifyAll();
+            }
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Escribe lo pendiente y cierra el archivo
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            cerrado = true;
+            notifyAll();
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        canal.close();
+    }
+
+    public long getForzados() {
+        return forzados;
+    }
+
+    public long getRegistrosEscritos() {
+        return registrosEscritos;
+    }
+
+    private static long control(long secuencia, int origen, int destino, double monto) {
+        long h = secuencia * 0x9E3779B97F4A7C15L;
+        h ^= ((long) origen << 32 | (destino & 0xFFFFFFFFL)) * 0xC2B2AE3D27D4EB4FL;
+        h ^= Double.doubleToLongBits(monto) * 0x165667B19E3779F9L;
+        return h ^ (h >>> 29);
+    }
+
+    // Número de registros válidos y consecutivos desde el principio del archivo
+    private static long contarRegistrosValidos(Path ruta) throws IOException {
+        long[] validos = {0};
+        recorrer(ruta, (origen, destino, monto) -> validos[0]++);
+        return validos[0];
+    }
+
+    interface Visitante {
+        void registro(int origen, int destino, double monto);
+    }
+
+    private static void recorrer(Path ruta, Visitante visitante) throws IOException {
+        if (!Files.exists(ruta)) {
+            return;
+        }
+        try (FileChannel lectura = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4096 * TAMANO_REGISTRO);
+            long esperada = 1;
+            boolean fin = false;
+            while (!fin) {
+                fin = lectura.read(buffer) < 0;
+                buffer.flip();
+                while (buffer.remaining() >= TAMANO_REGISTRO) {
+                    long secuencia = buffer.getLong();
+                    int origen = buffer.getInt();
+                    int destino = buffer.getInt();
+                    double monto = buffer.getDouble();
+                    long control = buffer.getLong();
+                    if (secuencia != esperada || control != control(secuencia, origen, destino, monto)) {
+                        return; // Registro corrupto: el diario válido termina aquí
+                    }
+                    visitante.registro(origen, destino, monto);
+                    esperada++;
+                }
+                // Un resto menor que un registro al final del archivo es un registro incompleto
+                buffer.compact();
+            }
+        }
+    }
+
+    /**
+     * Reaplica el diario sobre cuentas recién creadas con sus saldos iniciales
+     * (cuentas[i] debe ser la cuenta número i). Devuelve los registros aplicados.
+     */
+    public static long reproducir(Path ruta, CuentaBancariaSolucion[] cuentas) throws IOException {
+        long[] aplicados = {0};
+        recorrer(ruta, (origen, destino, monto) -> {
+            CuentaBancariaSolucion.conCuentasBloqueadas(
+                new CuentaBancariaSolucion[] {cuentas[origen], cuentas[destino]}, () -> {
+                    cuentas[origen].ajustarSaldo(-monto);
+                    cuentas[destino].ajustarSaldo(monto);
+                });
+            aplicados[0]++;
+        });
+        return aplicados[0];
+    }
+
+    // Uso: DiarioTransferencias [archivo] [ventanaMs]
+    // Ejecutarlo dos veces seguidas muestra la reconstrucción desde el diario.
+    public static void main(String[] args) throws Exception {
+        Path ruta = Paths.get(args.length > 0 ? args[0] : "transferencias.wal");
+        long ventanaMs = args.length > 1 ? Long.parseLong(args[1]) : 10;
+        int[][][] transferencias = CuentaBancariaSolucion.TRANSFERENCIAS;
+
+        CuentaBancariaSolucion[] cuentas = new CuentaBancariaSolucion[5];
+        for (int i = 0; i < 5; i++) {
+            cuentas[i] = new CuentaBancariaSolucion(i, 1000 * (i + 1));
+        }
+        long reaplicados = reproducir(ruta, cuentas);
+        System.out.println("Diario " + ruta + ": " + reaplicados + " transferencias reaplicadas al arrancar");
+        imprimirSaldos(cuentas);
+
+        CuentaBancariaSolucion.retardoSimuladoMs = 0;
+        CuentaBancariaSolucion.registro = new RegistroEventos(2, false);
+        try (DiarioTransferencias diario = new DiarioTransferencias(ruta, ventanaMs)) {
+            CuentaBancariaSolucion.diario = diario;
+            Thread[] threads = new Thread[transferencias.length];
+            for (int i = 0; i < threads.length; i++) {
+                final int threadNum = i;
+                threads[i] = new Thread(() -> {
+                    for (int[] t : transferencias[threadNum]) {
+                        cuentas[t[0]].transferir(cuentas[t[1]], t[2]);
+                    }
+                }, "Thread-" + (i + 1));
+            }
+            for (Thread t : threads) t.start();
+            for (Thread t : threads) t.join();
+            CuentaBancariaSolucion.diario = null;
+
+            System.out.println("\nTras ejecutar TRANSFERENCIAS con el diario (ventana " + ventanaMs + " ms):");
+            imprimirSaldos(cuentas);
+            System.out.println("\n" + diario.getRegistrosEscritos() + " registros en " + diario.getForzados() + " fsync");
+        }
+    }
+
+    private static void imprimirSaldos(CuentaBancariaSolucion[] cuentas) {
+        System.out.println("─────────────────────────────────");
+        double total = 0;
+        for (CuentaBancariaSolucion cuenta : cuentas) {
+            System.out.printf("  Cuenta %d: $%-6.0f\n", cuenta.getNumeroCuenta(), cuenta.getSaldo());
+            total += cuenta.getSaldo();
+        }
+        System.out.println("─────────────────────────────────");
+        System.out.printf("  Total:    $%-6.0f\n", total);
+    }
+}
@@ -0,0 +1,164 @@
+package deadlock.deadlock_con_solucion;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Gestor de locks transaccional con la política WAIT-DIE.
+ *
+ * A diferencia de transferir(), no exige un orden global de adquisición:
+ * una transacción puede bloquear sus cuentas en cualquier orden (p. ej. la
+ * segunda cuenta solo se conoce después de leer la primera).
+ *
+ * Cada transacción recibe una marca de tiempo al empezar (menor = más vieja).
+ * Si pide un lock que tiene otra transacción:
+ * - Si es MÁS VIEJA que la dueña: espera (wait)
+ * - Si es MÁS JOVEN: muere (se aborta), libera todos sus locks y se reintenta
+ *   conservando su marca de tiempo original
+ *
+ * Solo las viejas esperan a las jóvenes, así que no puede formarse un ciclo
+ * de espera (sin deadlock); y como la marca se conserva, toda transacción
+ * acaba siendo la más vieja y termina (sin starvation).
+ */
+public class GestorLocksWaitDie {
+
+    // Se lanza dentro del cuerpo de la transacción; ejecutar() la captura y reintenta
+    static final class TransaccionAbortada extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        TransaccionAbortada() {
+            super("wait-die: transacción más joven abortada", null, false, false);
+        }
+    }
+
+    // Se lanza si el hilo se interrumpe esperando un lock; ejecutar() no reintenta y la propaga
+    public static final class TransaccionInterrumpida extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        TransaccionInterrumpida(InterruptedException causa) {
+            super("wait-die: hilo interrumpido esperando un lock", causa);
+        }
+    }
+
+    public static final class Transaccion {
+        final long marcaTiempo;
+        private final GestorLocksWaitDie gestor;
+        private int[] tomados = new int[4];
+        private int numTomados = 0;
+
+        private Transaccion(GestorLocksWaitDie gestor, long marcaTiempo) {
+            this.gestor = gestor;
+            this.marcaTiempo = marcaTiempo;
+        }
+
+        // Bloquea el recurso (si ya lo tiene no hace nada); puede abortar la transacción
+        public void bloquear(int recurso) {
+            gestor.adquirir(this, recurso);
+        }
+    }
+
+    // Estado de un recurso; su monitor protege 'dueno'
+    private static final class Recurso {
+        Transaccion dueno;
+    }
+
+    private final Recurso[] recursos;
+    private final AtomicLong reloj = new AtomicLong();
+    private final LongAdder confirmadas = new LongAdder();
+    private final LongAdder abortos = new LongAdder();
+
+    public GestorLocksWaitDie(int numRecursos) {
+        this.recursos = new Recurso[numRecursos];
+        for (int i = 0; i < numRecursos; i++) {
+            recursos[i] = new Recurso();
+        }
+    }
+
+    /**
+     * Ejecuta 'cuerpo' como transacción: el cuerpo llama a tx.bloquear(...)
+     * antes de tocar cada recurso. Al terminar (o abortar) se liberan todos.
+     * El cuerpo debe poder repetirse: si aborta, no debe haber escrito nada.
+     * Si el hilo se interrumpe esperando un lock, lanza TransaccionInterrumpida
+     * (con el flag de interrupción restaurado) en lugar de reintentar.
+     */
+    public <T> T ejecutar(Function<Transaccion, T> cuerpo) {
+        Transaccion tx = new Transaccion(this, reloj.incrementAndGet());
+        for (int intento = 0; ; intento++) {
+            try {
+                T resultado = cuerpo.apply(tx);
+                confirmadas.increment();
+                return resultado;
+            } catch (TransaccionAbortada e) {
+                abortos.increment();
+            } finally {
+                liberarTodos(tx);
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new TransaccionInterrumpida(new InterruptedException());
+            }
+            // La dueña suele ser una transacción en curso: dejarle la CPU antes de reintentar
+            Thread.yield();
+        }
+    }
+
+    private void adquirir(Transaccion tx, int indice) {
+        Recurso recurso = recursos[indice];
+        synchronized (recurso) {
+            while (recurso.dueno != null && recurso.dueno != tx) {
+                if (tx.marcaTiempo > recurso.dueno.marcaTiempo) {
+                    throw new TransaccionAbortada(); // Die: la más joven no espera
+                }
+                try {
+                    recurso.wait(); // Wait: la más vieja espera a la joven
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new TransaccionInterrumpida(e);
+                }
+            }
+            if (recurso.dueno == tx) {
+                return;
+            }
+            recurso.dueno = tx;
+        }
+        if (tx.numTomados == tx.tomados.length) {
+            tx.tomados = Arrays.copyOf(tx.tomados, tx.numTomados * 2);
+        }
+        tx.tomados[tx.numTomados++] = indice;
+    }
+
+    private void liberarTodos(Transaccion tx) {
+        for (int i = tx.numTomados - 1; i >= 0; i--) {
+            Recurso recurso = recursos[tx.tomados[i]];
+            synchronized (recurso) {
+                recurso.dueno = null;
+                recurso.notifyAll();
+            }
+        }
+        tx.numTomados = 0;
+    }
+
+    public long getConfirmadas() {
+        return confirmadas.sum();
+    }
+
+    public long getAbortos() {
+        return abortos.sum();
+    }
+
+    // Abortos por transacción confirmada
+    public double getTasaAbortos() {
+        long c = confirmadas.sum();
+        return c == 0 ? 0 : (double) abortos.sum() / c;
+    }
+
+    public void reiniciarEstadisticas() {
+        confirmadas.reset();
+        abortos.reset();
+    }
+
+    public int getNumeroRecursos() {
+        return recursos.length;
+    }
+}
@@ -0,0 +1,174 @@
+package deadlock.deadlock_con_solucion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Libro de cuentas PARTICIONADO con un único escritor por partición (actores).
+ *
+ * Las cuentas se reparten entre P ejecutores de un solo hilo (cuenta i ->
+ * partición i % P). Solo el hilo dueño de una partición lee o modifica sus
+ * saldos, así que no hace falta ningún lock ni monitor:
+ *
+ * - Misma partición: la transferencia completa corre en el hilo dueño
+ * - Particiones distintas: dos fases. La partición origen valida y debita;
+ *   si tuvo éxito, entrega el crédito a la partición destino. Entre ambas
+ *   fases el dinero está "en tránsito", nunca duplicado ni perdido.
+ *
+ * Las transferencias se envían de forma asíncrona y devuelven un
+ * CompletableFuture con el resultado (false = saldo insuficiente).
+ * Con muchas cuentas la carga se reparte entre particiones y escala con
+ * el número de núcleos.
+ */
+public class LibroParticionado {
+
+    private final ExecutorService[] particiones;
+    // saldosPorParticion[p][i / P] = saldo en centavos de la cuenta i (i % P == p)
+    private final long[][] saldosPorParticion;
+    private final int numeroCuentas;
+
+    public LibroParticionado(long[] saldosInicialesCentavos, int numParticiones) {
+        this.numeroCuentas = saldosInicialesCentavos.length;
+        this.particiones = new ExecutorService[numParticiones];
+        this.saldosPorParticion = new long[numParticiones][];
+        for (int p = 0; p < numParticiones; p++) {
+            final int indice = p;
+            particiones[p] = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "Particion-" + indice);
+                t.setDaemon(true);
+                return t;
+            });
+            saldosPorParticion[p] = new long[(numeroCuentas - p + numParticiones - 1) / numParticiones];
+        }
+        for (int i = 0; i < numeroCuentas; i++) {
+            saldosPorParticion[particion(i)][i / numParticiones] = saldosInicialesCentavos[i];
+        }
+    }
+
+    private int particion(int cuenta) {
+        return cuenta % particiones.length;
+    }
+
+    // Solo debe llamarse desde el hilo dueño de la partición de 'cuenta'
+    private long[] saldos(int cuenta) {
+        return saldosPorParticion[particion(cuenta)];
+    }
+
+    private int posicion(int cuenta) {
+        return cuenta / particiones.length;
+    }
+
+    public CompletableFuture<Boolean> transferir(int origen, int destino, long montoCentavos) {
+        ExecutorService ejecutorOrigen = particiones[particion(origen)];
+        if (particion(origen) == particion(destino)) {
+            return CompletableFuture.supplyAsync(() -> {
+                long[] saldos = saldos(origen);
+                if (saldos[posicion(origen)] < montoCentavos) {
+                    return false;
+                }
+                saldos[posicion(origen)] -= montoCentavos;
+                saldos[posicion(destino)] += montoCentavos;
+                return true;
+            }, ejecutorOrigen);
+        }
+
+        // Fase 1: debitar en la partición origen
+        CompletableFuture<Boolean> debito = CompletableFuture.supplyAsync(() -> {
+            long[] saldos = saldos(origen);
+            if (saldos[posicion(origen)] < montoCentavos) {
+                return false;
+            }
+            saldos[posicion(origen)] -= montoCentavos;
+            return true;
+        }, ejecutorOrigen);
+
+        // Fase 2: entregar el crédito a la partición destino
+        ExecutorService ejecutorDestino = particiones[particion(destino)];
+        return debito.thenApplyAsync(exito -> {
+            if (exito) {
+                saldos(destino)[posicion(destino)] += montoCentavos;
+            }
+            return exito;
+        }, ejecutorDestino);
+    }
+
+    public CompletableFuture<Long> getSaldoCentavos(int cuenta) {
+        return CompletableFuture.supplyAsync(() -> saldos(cuenta)[posicion(cuenta)],
+            particiones[particion(cuenta)]);
+    }
+
+    // Suma de todos los saldos; exacta cuando no hay transferencias en curso
+    public long totalCentavos() {
+        List<CompletableFuture<Long>> parciales = new ArrayList<>();
+        for (int p = 0; p < particiones.length; p++) {
+            final long[] saldos = saldosPorParticion[p];
+            parciales.add(CompletableFuture.supplyAsync(() -> {
+                long suma = 0;
+                for (long saldo : saldos) suma += saldo;
+                return suma;
+            }, particiones[p]));
+        }
+        long total = 0;
+        for (CompletableFuture<Long> parcial : parciales) {
+            total += parcial.join();
+        }
+        return total;
+    }
+
+    public int getNumeroCuentas() {
+        return numeroCuentas;
+    }
+
+    public void cerrar() {
+        for (ExecutorService particion : particiones) {
+            particion.shutdown();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int[][][] transferencias = CuentaBancariaSolucion.TRANSFERENCIAS;
+        int numParticiones = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+
+        long[] saldosIniciales = new long[5];
+        for (int i = 0; i < 5; i++) {
+            saldosIniciales[i] = MotorTransferenciasOptimista.aCentavos(1000 * (i + 1));
+        }
+        LibroParticionado libro = new LibroParticionado(saldosIniciales, numParticiones);
+
+        System.out.println("TABLA DE TRANSFERENCIAS PLANIFICADAS (LIBRO PARTICIONADO, "
+            + numParticiones + " particiones):\n");
+        CuentaBancariaSolucion.imprimirTablaTransferencias(transferencias);
+        long totalInicial = libro.totalCentavos();
+
+        Thread[] threads = new Thread[transferencias.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int threadNum = i;
+            threads[i] = new Thread(() -> {
+                for (int[] t : transferencias[threadNum]) {
+                    boolean exito = libro.transferir(t[0], t[1], MotorTransferenciasOptimista.aCentavos(t[2])).join();
+                    System.out.println((exito ? "✓ " : "✗ ") + Thread.currentThread().getName() +
+                        ": " + t[0] + "→" + t[1] + ", $" + t[2] +
+                        (exito ? "" : " (saldo insuficiente)"));
+                }
+            }, "Thread-" + (i + 1));
+        }
+        for (Thread t : threads) t.start();
+        for (Thread t : threads) t.join();
+
+        System.out.println("\nSALDOS FINALES:");
+        System.out.println("─────────────────────────────────");
+        for (int i = 0; i < libro.getNumeroCuentas(); i++) {
+            System.out.printf("  Cuenta %d: $%-6.0f\n", i, libro.getSaldoCentavos(i).join() / 100.0);
+        }
+        System.out.println("─────────────────────────────────");
+        long totalFinal = libro.totalCentavos();
+        System.out.printf("  Total:    $%-6.0f\n", totalFinal / 100.0);
+        System.out.println(totalFinal == totalInicial
+            ? "\n✅ Total conservado: no se creó ni destruyó dinero"
+            : "\n⚠️  El total cambió: revisar el libro particionado");
+        libro.cerrar();
+    }
+}
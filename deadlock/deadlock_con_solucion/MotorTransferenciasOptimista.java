@@ -0,0 +1,154 @@
+package deadlock.deadlock_con_solucion;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Motor de transferencias OPTIMISTA, alternativa a los monitores anidados
+ * de CuentaBancariaSolucion.transferir.
+ *
+ * - Saldos en centavos (long de punto fijo) en lugar de double
+ * - Cada cuenta tiene una versión: par = libre, impar = un commit la está escribiendo
+ * - Una transferencia lee versiones y saldos sin bloquear, valida fondos y
+ *   confirma con CAS sobre las dos versiones (en orden de número de cuenta).
+ *   Si otra transferencia tocó alguna de las cuentas entre medias, reintenta.
+ *
+ * Transferencias entre cuentas distintas nunca se esperan entre sí; dos que
+ * comparten cuenta solo compiten durante las escrituras del commit.
+ */
+public class MotorTransferenciasOptimista {
+    private final AtomicLongArray saldos;
+    private final AtomicLongArray versiones;
+
+    public MotorTransferenciasOptimista(long[] saldosInicialesCentavos) {
+        this.saldos = new AtomicLongArray(saldosInicialesCentavos);
+        this.versiones = new AtomicLongArray(saldosInicialesCentavos.length);
+    }
+
+    public static long aCentavos(double monto) {
+        return Math.round(monto * 100);
+    }
+
+    // Devuelve false si el origen no tiene fondos suficientes
+    public boolean transferir(int origen, int destino, long montoCentavos) {
+        if (origen == destino) {
+            return getSaldoCentavos(origen) >= montoCentavos;
+        }
+        int primera = Math.min(origen, destino);
+        int segunda = Math.max(origen, destino);
+
+        for (int intento = 0; ; intento++) {
+            if (intento > 0) {
+                esperar(intento);
+            }
+            // 1. Lectura optimista
+            long versionPrimera = versiones.get(primera);
+            long versionSegunda = versiones.get(segunda);
+            if ((versionPrimera & 1) != 0 || (versionSegunda & 1) != 0) {
+                continue; // Hay un commit en curso sobre alguna cuenta
+            }
+            long saldoOrigen = saldos.get(origen);
+
+            // 2. Validación de fondos (solo es definitiva si la versión no cambió)
+            if (saldoOrigen < montoCentavos) {
+                long versionOrigen = origen == primera ? versionPrimera : versionSegunda;
+                if (versiones.get(origen) == versionOrigen) {
+                    return false;
+                }
+                continue;
+            }
+
+            // 3. Commit: tomar ambas versiones con CAS, en orden de cuenta
+            if (!versiones.compareAndSet(primera, versionPrimera, versionPrimera + 1)) {
+                continue;
+            }
+            if (!versiones.compareAndSet(segunda, versionSegunda, versionSegunda + 1)) {
+                versiones.set(primera, versionPrimera); // Nadie la modificó: restaurar
+                continue;
+            }
+
+            // Las versiones no cambiaron desde la lectura: el saldo leído sigue vigente
+            saldos.set(origen, saldoOrigen - montoCentavos);
+            saldos.set(destino, saldos.get(destino) + montoCentavos);
+
+            versiones.set(segunda, versionSegunda + 2);
+            versiones.set(primera, versionPrimera + 2);
+            return true;
+        }
+    }
+
+    // Lectura consistente de una cuenta (reintenta si hay un commit en curso)
+    public long getSaldoCentavos(int cuenta) {
+        for (int intento = 1; ; intento++) {
+            long version = versiones.get(cuenta);
+            long saldo = saldos.get(cuenta);
+            if ((version & 1) == 0 && versiones.get(cuenta) == version) {
+                return saldo;
+            }
+            esperar(intento);
+        }
+    }
+
+    // Espera activa breve; si el conflicto persiste cede la CPU, porque el
+    // hilo que tiene el commit a medias puede estar desalojado del procesador
+    private static void esperar(int intento) {
+        if (intento < 32) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    public int getNumeroCuentas() {
+        return saldos.length();
+    }
+
+    // Suma de todos los saldos; exacta cuando no hay transferencias en curso
+    public long totalCentavos() {
+        long total = 0;
+        for (int i = 0; i < saldos.length(); i++) {
+            total += getSaldoCentavos(i);
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int[][][] transferencias = CuentaBancariaSolucion.TRANSFERENCIAS;
+
+        long[] saldosIniciales = new long[5];
+        for (int i = 0; i < 5; i++) {
+            saldosIniciales[i] = aCentavos(1000 * (i + 1));
+        }
+        MotorTransferenciasOptimista motor = new MotorTransferenciasOptimista(saldosIniciales);
+
+        System.out.println("TABLA DE TRANSFERENCIAS PLANIFICADAS (MOTOR OPTIMISTA):\n");
+        CuentaBancariaSolucion.imprimirTablaTransferencias(transferencias);
+        long totalInicial = motor.totalCentavos();
+
+        Thread[] threads = new Thread[transferencias.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int threadNum = i;
+            threads[i] = new Thread(() -> {
+                for (int[] t : transferencias[threadNum]) {
+                    boolean exito = motor.transferir(t[0], t[1], aCentavos(t[2]));
+                    System.out.println((exito ? "✓ " : "✗ ") + Thread.currentThread().getName() +
+                        ": " + t[0] + "→" + t[1] + ", $" + t[2] +
+                        (exito ? "" : " (saldo insuficiente)"));
+                }
+            }, "Thread-" + (i + 1));
+        }
+        for (Thread t : threads) t.start();
+        for (Thread t : threads) t.join();
+
+        System.out.println("\nSALDOS FINALES:");
+        System.out.println("─────────────────────────────────");
+        for (int i = 0; i < motor.getNumeroCuentas(); i++) {
+            System.out.printf("  Cuenta %d: $%-6.0f\n", i, motor.getSaldoCentavos(i) / 100.0);
+        }
+        System.out.println("─────────────────────────────────");
+        long totalFinal = motor.totalCentavos();
+        System.out.printf("  Total:    $%-6.0f\n", totalFinal / 100.0);
+        System.out.println(totalFinal == totalInicial
+            ? "\n✅ Total conservado: no se creó ni destruyó dinero"
+            : "\n⚠️  El total cambió: revisar el motor de transferencias");
+    }
+}
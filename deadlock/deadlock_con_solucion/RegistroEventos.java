@@ -0,0 +1,220 @@
+package deadlock.deadlock_con_solucion;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Registro ASÍNCRONO de eventos de transferencias.
+ *
+ * Los hilos que transfieren solo copian unos pocos campos primitivos a una
+ * ranura de un buffer circular preasignado (sin formatear cadenas ni hacer
+ * I/O); un hilo escritor en segundo plano formatea y escribe en consola.
+ * Así no se hace ninguna escritura mientras se tiene el lock de una cuenta.
+ *
+ * - Buffer circular multi-productor / un consumidor con secuencia por ranura
+ * - Si el buffer está lleno el evento se DESCARTA y se cuenta (getDescartados):
+ *   registrar() se llama con los monitores de las cuentas tomados y nunca
+ *   debe esperar al escritor
+ * - Sin eventos el escritor duerme (park) hasta que un productor lo despierta;
+ *   no consume CPU mientras no se transfiere
+ * - La marca de tiempo se toma en el productor (currentTimeMillis) y el
+ *   escritor reutiliza el texto "HH:mm:ss." mientras no cambie el segundo
+ */
+public class RegistroEventos {
+
+    enum TipoEvento {
+        INICIANDO_HILO,
+        INICIA_TRANSFERENCIA,
+        INTENTA_BLOQUEAR,
+        BLOQUEO,
+        EXITO,
+        SALDO_INSUFICIENTE,
+        LIBERO,
+        COMPLETO
+    }
+
+    // Ranura del buffer: se reutiliza, nunca se asigna memoria al registrar
+    private static final class Evento {
+        // == posición: libre para esa posición; == posición + 1: publicado
+        volatile long secuencia;
+        long marcaTiempo;
+        TipoEvento tipo;
+        String hilo;
+        int cuentaA;
+        int cuentaB;
+        double monto;
+        int numero;
+    }
+
+    private static final DateTimeFormatter formatoSegundos =
+        DateTimeFormatter.ofPattern("HH:mm:ss.");
+
+    private final Evento[] ranuras;
+    private final int mascara;
+    private final boolean activo;
+    private final AtomicLong siguiente = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+    private volatile long escritos = 0;
+    // El escritor lo pone a true antes de dormir; el productor que lo ve lo despierta
+    private volatile boolean escritorDormido = false;
+    private final Thread escritor;
+
+    // Estado del escritor (solo lo toca el hilo escritor)
+    private final StringBuilder linea = new StringBuilder(160);
+    private long segundoEnCache = -1;
+    private String textoSegundo = "";
+
+    public RegistroEventos(int capacidad) {
+        this(capacidad, true);
+    }
+
+    // activo = false descarta los eventos (útil para benchmarks)
+    public RegistroEventos(int capacidad, boolean activo) {
+        int tamano = Integer.highestOneBit(Math.max(2, capacidad - 1)) << 1;
+        this.ranuras = new Evento[tamano];
+        for (int i = 0; i < tamano; i++) {
+            ranuras[i] = new Evento();
+            ranuras[i].secuencia = i;
+        }
+        this.mascara = tamano - 1;
+        this.activo = activo;
+        this.escritor = new Thread(this::escribirEventos, "RegistroEventos");
+        this.escritor.setDaemon(true);
+        if (activo) {
+            escritor.start();
+        }
+    }
+
+    public void registrar(TipoEvento tipo, int cuentaA, int cuentaB, double monto) {
+        registrar(tipo, Thread.currentThread().getName(), cuentaA, cuentaB, monto, 0);
+    }
+
+    public void registrar(TipoEvento tipo, String hilo, int cuentaA, int cuentaB, double monto, int numero) {
+        if (!activo) {
+            return;
+        }
+        long posicion;
+        Evento evento;
+        while (true) {
+            posicion = siguiente.get();
+            evento = ranuras[(int) (posicion & mascara)];
+            long diferencia = evento.secuencia - posicion;
+            if (diferencia == 0) {
+                if (siguiente.compareAndSet(posicion, posicion + 1)) {
+                    break; // Ranura reservada
+                }
+            } else if (diferencia < 0) {
+                descartados.incrementAndGet(); // Buffer lleno: no esperar con los locks tomados
+                return;
+            }
+            // diferencia > 0: otro productor se llevó esta posición, reintentar
+        }
+        evento.marcaTiempo = System.currentTimeMillis();
+        evento.tipo = tipo;
+        evento.hilo = hilo;
+        evento.cuentaA = cuentaA;
+        evento.cuentaB = cuentaB;
+        evento.monto = monto;
+        evento.numero = numero;
+        evento.secuencia = posicion + 1; // Publicar
+        if (escritorDormido) {
+            escritorDormido = false;
+            LockSupport.unpark(escritor);
+        }
+    }
+
+    // Eventos perdidos porque el buffer estaba lleno
+    public long getDescartados() {
+        return descartados.get();
+    }
+
+    // Espera a que el escritor haya impreso todo lo registrado hasta ahora
+    public void vaciar() {
+        long objetivo = siguiente.get();
+        while (activo && escritos < objetivo) {
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    private void escribirEventos() {
+        long posicion = 0;
+        while (true) {
+            Evento evento = ranuras[(int) (posicion & mascara)];
+            if (evento.secuencia != posicion + 1) {
+                System.out.flush();
+                escritos = posicion;
+                escritorDormido = true;
+                // Volver a mirar tras anunciarlo: o lo vemos publicado, o el productor ve la marca
+                if (evento.secuencia != posicion + 1) {
+                    LockSupport.park(this);
+                }
+                escritorDormido = false;
+                continue;
+            }
+            formatear(evento);
+            evento.hilo = null;
+            evento.secuencia = posicion + ranuras.length; // Liberar la ranura
+            posicion++;
+            System.out.print(linea);
+        }
+    }
+
+    private void formatear(Evento e) {
+        linea.setLength(0);
+        linea.append('[');
+        anadirMarcaTiempo(e.marcaTiempo);
+        linea.append("] ");
+        switch (e.tipo) {
+            case INICIANDO_HILO:
+                linea.append("Iniciando ").append(e.hilo).append("...");
+                break;
+            case INICIA_TRANSFERENCIA:
+                linea.append("▶️  ").append(e.hilo).append(" inicia Transferencia ").append(e.numero)
+                    .append(": ").append(e.cuentaA).append('→').append(e.cuentaB)
+                    .append(", $").append(Math.round(e.monto));
+                break;
+            case INTENTA_BLOQUEAR:
+                linea.append("🔄 ").append(e.hilo).append(" INTENTA bloquear cuentas ")
+                    .append(e.cuentaA).append(" y ").append(e.cuentaB).append(" (orden: menor→mayor)");
+                break;
+            case BLOQUEO:
+                linea.append("🔒 ").append(e.hilo).append(" BLOQUEÓ cuenta ").append(e.cuentaA);
+                break;
+            case EXITO:
+                linea.append("✓ ").append(e.hilo).append(": Transferencia exitosa ")
+                    .append(e.cuentaA).append('→').append(e.cuentaB)
+                    .append(", $").append(Math.round(e.monto));
+                break;
+            case SALDO_INSUFICIENTE:
+                linea.append("✗ ").append(e.hilo).append(": Saldo insuficiente en cuenta ")
+                    .append(e.cuentaA).append(" (saldo: $").append(Math.round(e.monto)).append(')');
+                break;
+            case LIBERO:
+                linea.append("✅ ").append(e.hilo).append(" LIBERÓ cuenta ").append(e.cuentaA);
+                break;
+            case COMPLETO:
+                linea.append("🏁 ").append(e.hilo).append(" COMPLETÓ todas sus transferencias");
+                break;
+        }
+        linea.append(System.lineSeparator());
+    }
+
+    // "HH:mm:ss." se formatea una vez por segundo; los milisegundos a mano
+    private void anadirMarcaTiempo(long marcaTiempo) {
+        long segundo = marcaTiempo / 1000;
+        if (segundo != segundoEnCache) {
+            segundoEnCache = segundo;
+            textoSegundo = LocalDateTime.ofInstant(Instant.ofEpochMilli(segundo * 1000),
+                ZoneId.systemDefault()).format(formatoSegundos);
+        }
+        int milis = (int) (marcaTiempo % 1000);
+        linea.append(textoSegundo);
+        if (milis < 100) linea.append('0');
+        if (milis < 10) linea.append('0');
+        linea.append(milis);
+    }
+}
@@ -0,0 +1,45 @@
+package race.race_con_solucion;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import benchmark.ArnesBenchmark;
+
+// Benchmark de carga de reabastecimiento (muchas escrituras, pocas lecturas)
+// sobre un mismo producto, de 2 a 64 hilos:
+// - locks[id]: enfoque original de InventarioSinRace (ReentrantLock por producto)
+// - Atómico:   InventarioAtomico (una celda por producto, getAndAdd)
+// - Distribuido: InventarioDistribuido (LongAdder por producto)
+//
+// Cada hilo alterna reabastecer y vender una unidad (el stock no crece sin
+// límite durante la medición) y, en 1 de cada 1000 operaciones, lee el stock.
+public class BenchmarkContadores {
+    static final int LECTURA_CADA = 1000;
+
+    static boolean tocaLeer() {
+        return ThreadLocalRandom.current().nextInt(LECTURA_CADA) == 0;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        ArnesBenchmark.imprimirEncabezado("BENCHMARK reabastecimiento y venta concurrentes sobre un producto"
+            + " (1 lectura cada " + LECTURA_CADA + " escrituras)");
+        for (int numHilos : ArnesBenchmark.hilos(2, 4, 8, 16, 32, 64)) {
+            InventarioConLocks conLocks = new InventarioConLocks(1);
+            InventarioAtomico atomico = new InventarioAtomico(1);
+            InventarioDistribuido distribuido = new InventarioDistribuido(1);
+            int[] contador = new int[numHilos];
+
+            ArnesBenchmark.imprimirFila("locks[id]", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                if ((contador[h]++ & 1) == 0) conLocks.reabastecer(0, 1); else conLocks.vender(0, 1);
+                if (tocaLeer()) conLocks.getStock(0);
+            }));
+            ArnesBenchmark.imprimirFila("Atómico", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                if ((contador[h]++ & 1) == 0) atomico.reabastecer(0, 1); else atomico.vender(0, 1);
+                if (tocaLeer()) atomico.getStock(0);
+            }));
+            ArnesBenchmark.imprimirFila("Distribuido (LongAdder)", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                if ((contador[h]++ & 1) == 0) distribuido.reabastecer(0, 1); else distribuido.vender(0, 1);
+                if (tocaLeer()) distribuido.getStock(0);
+            }));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package race.race_con_solucion;
+
+import benchmark.ArnesBenchmark;
+
+// Benchmark de vender/reabastecer sobre 10 productos (como InventarioSinRace):
+// cada hilo trabaja sobre el producto (hilo % 10) alternando venta y
+// reabastecimiento, así que con más de 10 hilos varios comparten producto.
+public class BenchmarkInventario {
+    static final int PRODUCTOS = 10;
+
+    public static void main(String[] args) throws InterruptedException {
+        ArnesBenchmark.imprimirEncabezado("BENCHMARK vender/reabastecer (" + PRODUCTOS + " productos)");
+        for (int numHilos : ArnesBenchmark.hilos(1, 2, 4, 8, 16, 32)) {
+            InventarioConLocks conLocks = new InventarioConLocks(PRODUCTOS);
+            InventarioAtomico atomico = new InventarioAtomico(PRODUCTOS);
+            InventarioAtomico conRelleno = new InventarioAtomico(PRODUCTOS, true);
+
+            ArnesBenchmark.imprimirFila("locks[id]", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                conLocks.vender(h % PRODUCTOS, 1);
+                conLocks.reabastecer(h % PRODUCTOS, 1);
+            }));
+            ArnesBenchmark.imprimirFila("Atómico", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                atomico.vender(h % PRODUCTOS, 1);
+                atomico.reabastecer(h % PRODUCTOS, 1);
+            }));
+            ArnesBenchmark.imprimirFila("Atómico con relleno", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                conRelleno.vender(h % PRODUCTOS, 1);
+                conRelleno.reabastecer(h % PRODUCTOS, 1);
+            }));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package race.race_con_solucion;
+
+import benchmark.ArnesBenchmark;
+
+// Benchmark de consultas de stock con 100 lecturas por cada venta, variando
+// el número de hilos lectores: lock por producto (InventarioConLocks.getStock)
+// frente a InventarioAtomico.getStock, una lectura atómica de la celda que
+// solo espera si una cesta (aplicarCesta) tiene el producto reservado. Este
+// benchmark no usa cestas, así que no mide ese camino de espera.
+//
+// Cada operación es una lectura; 1 de cada LECTURAS_POR_ESCRITURA es una
+// venta más su reabastecimiento.
+public class BenchmarkLecturasStock {
+    static final int PRODUCTOS = 10;
+    static final int LECTURAS_POR_ESCRITURA = 100;
+
+    public static void main(String[] args) throws InterruptedException {
+        ArnesBenchmark.imprimirEncabezado("BENCHMARK getStock (" + LECTURAS_POR_ESCRITURA
+            + " lecturas : 1 venta, " + PRODUCTOS + " productos)");
+        for (int numHilos : ArnesBenchmark.hilos(1, 2, 4, 8, 16, 32)) {
+            InventarioConLocks conLocks = new InventarioConLocks(PRODUCTOS);
+            InventarioAtomico atomico = new InventarioAtomico(PRODUCTOS);
+            int[] contador = new int[numHilos];
+            long[] sumidero = new long[numHilos];
+
+            ArnesBenchmark.imprimirFila("locks[id] getStock", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                int k = contador[h]++;
+                if (k % LECTURAS_POR_ESCRITURA == 0) {
+                    conLocks.vender(h % PRODUCTOS, 1);
+                    conLocks.reabastecer(h % PRODUCTOS, 1);
+                } else {
+                    sumidero[h] += conLocks.getStock(k % PRODUCTOS);
+                }
+            }));
+            ArnesBenchmark.imprimirFila("Atómico getStock", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                int k = contador[h]++;
+                if (k % LECTURAS_POR_ESCRITURA == 0) {
+                    atomico.vender(h % PRODUCTOS, 1);
+                    atomico.reabastecer(h % PRODUCTOS, 1);
+                } else {
+                    sumidero[h] += atomico.getStock(k % PRODUCTOS);
+                }
+            }));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package race.race_con_solucion;
+
+import benchmark.ArnesBenchmark;
+
+// Benchmark de contención: "vender solo si hay stock" sobre un único SKU
+// caliente, comparando InventarioAtomico.tryVender (CAS) contra el enfoque
+// anterior de InventarioSinRace (un ReentrantLock por producto).
+//
+// Cada hilo repite: tryVender(0, 1); si no hay stock, reabastecer(0, 1000).
+public class BenchmarkReservas {
+
+    public static void main(String[] args) throws InterruptedException {
+        ArnesBenchmark.imprimirEncabezado("BENCHMARK tryVender sobre un SKU caliente");
+        for (int numHilos : ArnesBenchmark.hilos(1, 2, 4, 8, 16, 32)) {
+            InventarioConLocks conLocks = new InventarioConLocks(1);
+            InventarioAtomico atomico = new InventarioAtomico(1);
+
+            ArnesBenchmark.imprimirFila("locks[id]", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                if (!conLocks.tryVender(0, 1)) {
+                    conLocks.reabastecer(0, 1000);
+                }
+            }));
+            ArnesBenchmark.imprimirFila("CAS tryVender", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                if (!atomico.tryVender(0, 1)) {
+                    atomico.reabastecer(0, 1000);
+                }
+            }));
+        }
+    }
+}
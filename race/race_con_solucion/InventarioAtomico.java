@@ -0,0 +1,229 @@
+package race.race_con_solucion;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Motor de inventario SIN LOCKS: cada venta/reabastecimiento es una sola
+// suma atómica (lock xadd) sobre la celda del producto, en lugar de
+// lock() + leer + escribir + unlock().
+//
+// - Sin relleno: un long por producto, apto para millones de SKUs
+// - Con relleno: cada producto ocupa su propia línea de caché (64 bytes)
+//   para evitar false sharing entre productos muy concurridos
+//
+// Las cestas (aplicarCesta) reservan cada producto sumando a su celda el bit
+// RESERVADA; mientras dura la reserva tryVender y getStock esperan, así que
+// nadie ve una cesta a medio aplicar. El stock se mantiene en
+// [-MAXIMO, MAXIMO]: cada escritura que lo saca de ahí se deshace y lanza
+// ArithmeticException. Las cantidades son int, así que aunque muchos hilos
+// sumen a la vez antes de deshacer, la celda no llega a LIMITE y el stock
+// nunca se confunde con la marca.
+public class InventarioAtomico {
+    // 64 bytes por línea de caché / 8 bytes por long
+    private static final int LONGS_POR_LINEA = 8;
+    // Celda reservada = stock + RESERVADA, siempre >= LIMITE
+    private static final long RESERVADA = 1L << 62;
+    private static final long LIMITE = 1L << 61;
+    // Stock máximo (en valor absoluto) que admiten las escrituras
+    static final long MAXIMO = 1L << 60;
+    // Esperas activas antes de ceder la CPU al titular de una reserva
+    private static final int ESPERAS_ACTIVAS = 64;
+
+    private final AtomicLongArray stock;
+    private final int productos;
+    private final int espaciado;
+
+    public InventarioAtomico(int productos) {
+        this(productos, false);
+    }
+
+    public InventarioAtomico(int productos, boolean conRelleno) {
+        this.productos = productos;
+        this.espaciado = conRelleno ? LONGS_POR_LINEA : 1;
+        this.stock = new AtomicLongArray(productos * espaciado);
+    }
+
+    private int indice(int id) {
+        return id * espaciado;
+    }
+
+    private static boolean reservada(long celda) {
+        return celda >= LIMITE;
+    }
+
+    // Suma atómica de 'delta' al stock; si lo saca de [-MAXIMO, MAXIMO] en la
+    // dirección de 'delta', la deshace (las sumas conmutan) y lanza ArithmeticException
+    private void sumar(int i, long delta) {
+        long celda = stock.addAndGet(i, delta);
+        long valor = reservada(celda) ? celda - RESERVADA : celda;
+        if (delta > 0 ? valor > MAXIMO : valor < -MAXIMO) {
+            stock.getAndAdd(i, -delta);
+            throw new ArithmeticException("stock fuera de rango: " + valor);
+        }
+    }
+
+    private static void esperar(int intento) {
+        if (intento < ESPERAS_ACTIVAS) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    // Ventas y reabastecimientos incondicionales: una suma atómica, también
+    // sobre una celda reservada (la cesta suma su delta encima, conmutan)
+    public void vender(int id, int cantidad) {
+        sumar(indice(id), -(long) cantidad);
+    }
+
+    public void reabastecer(int id, int cantidad) {
+        sumar(indice(id), cantidad);
+    }
+
+    // Vende solo si hay stock suficiente: el stock nunca queda negativo.
+    // Comprueba y descuenta con un CAS; si otro hilo cambió el stock entre
+    // medias, reintenta con el valor observado (sin volver a leer). Si una
+    // cesta tiene el producto reservado, espera a que confirme o aborte.
+    public boolean tryVender(int id, int cantidad) {
+        if (cantidad < 0) {
+            throw new IllegalArgumentException("cantidad negativa: " + cantidad);
+        }
+        int i = indice(id);
+        long actual = stock.get(i);
+        for (int intento = 0; reservada(actual) || actual >= cantidad; ) {
+            if (reservada(actual)) {
+                esperar(intento++);
+                actual = stock.get(i);
+                continue;
+            }
+            long observado = stock.compareAndExchange(i, actual, actual - cantidad);
+            if (observado == actual) {
+                return true;
+            }
+            actual = observado;
+        }
+        return false;
+    }
+
+    // Aplica un pedido completo (pares producto/delta) todo-o-nada:
+    // si algún producto no tiene stock suficiente no se modifica ninguno.
+    //
+    // Bloqueo en dos fases sobre las propias celdas:
+    // 1. Se agrupan las líneas por producto y se ordenan por id
+    // 2. Se reserva cada producto en orden de id (CAS que añade RESERVADA);
+    //    el orden global evita el deadlock entre cestas solapadas
+    // 3. Con todo reservado se validan las salidas contra el stock actual
+    // 4. Confirmar: cada celda suma su delta y suelta la reserva en una sola
+    //    suma atómica. Abortar: solo suelta las reservas
+    // Ningún lector ni tryVender ve la cesta a medias (esperan a la reserva),
+    // y no hay compensaciones: una cesta que falla no toca el stock.
+    // Los ids se validan antes de reservar nada, y las reservas tomadas se
+    // sueltan en un finally: ninguna excepción deja una celda RESERVADA.
+    // Una cesta que sacaría un stock de [-MAXIMO, MAXIMO] lanza ArithmeticException.
+    public boolean aplicarCesta(int[] ids, int[] deltas) {
+        if (ids.length != deltas.length) {
+            throw new IllegalArgumentException("ids y deltas deben tener la misma longitud");
+        }
+        for (int id : ids) {
+            if (id < 0 || id >= productos) {
+                throw new IllegalArgumentException("producto inexistente: " + id);
+            }
+        }
+        long[][] lineas = agruparPorProducto(ids, deltas);
+        int reservadas = 0;
+        boolean confirmar = false;
+        try {
+            for (long[] linea : lineas) {
+                reservar(indice((int) linea[0]));
+                reservadas++;
+            }
+            boolean hayStock = true;
+            for (long[] linea : lineas) {
+                long nuevo = stock.get(indice((int) linea[0])) - RESERVADA + linea[1];
+                if (linea[1] > 0 && nuevo > MAXIMO) {
+                    throw new ArithmeticException("stock fuera de rango: " + nuevo);
+                }
+                if (linea[1] < 0 && nuevo < 0) {
+                    hayStock = false;
+                    break;
+                }
+            }
+            confirmar = hayStock;
+            return hayStock;
+        } finally {
+            for (int k = 0; k < reservadas; k++) {
+                stock.getAndAdd(indice((int) lineas[k][0]), (confirmar ? lineas[k][1] : 0) - RESERVADA);
+            }
+        }
+    }
+
+    // Marca la celda como reservada; espera si la tiene otra cesta
+    private void reservar(int i) {
+        long actual = stock.get(i);
+        for (int intento = 0; ; ) {
+            if (reservada(actual)) {
+                esperar(intento++);
+                actual = stock.get(i);
+                continue;
+            }
+            long observado = stock.compareAndExchange(i, actual, actual + RESERVADA);
+            if (observado == actual) {
+                return;
+            }
+            actual = observado;
+        }
+    }
+
+    // Suma los deltas de un mismo producto y devuelve {id, delta} ordenados por id
+    private static long[][] agruparPorProducto(int[] ids, int[] deltas) {
+        long[][] lineas = new long[ids.length][];
+        for (int i = 0; i < ids.length; i++) {
+            lineas[i] = new long[] {ids[i], deltas[i]};
+        }
+        Arrays.sort(lineas, (x, y) -> Long.compare(x[0], y[0]));
+        int distintos = 0;
+        for (long[] linea : lineas) {
+            if (distintos > 0 && lineas[distintos - 1][0] == linea[0]) {
+                lineas[distintos - 1][1] += linea[1];
+            } else {
+                lineas[distintos++] = linea;
+            }
+        }
+        return Arrays.copyOf(lineas, distintos);
+    }
+
+    // Si una cesta tiene el producto reservado, espera a su resultado
+    public long getStock(int id) {
+        int i = indice(id);
+        long celda = stock.get(i);
+        for (int intento = 0; reservada(celda); intento++) {
+            esperar(intento);
+            celda = stock.get(i);
+        }
+        return celda;
+    }
+
+    public int getProductos() {
+        return productos;
+    }
+
+    // Solo debe llamarse cuando no hay operaciones en curso (entre ejecuciones)
+    public void reiniciar(int valor) {
+        for (int id = 0; id < productos; id++) {
+            stock.set(indice(id), valor);
+        }
+    }
+
+    public long[] toArray() {
+        long[] copia = new long[productos];
+        for (int id = 0; id < productos; id++) {
+            copia[id] = getStock(id);
+        }
+        return copia;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
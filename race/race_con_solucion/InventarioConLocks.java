@@ -0,0 +1,58 @@
+package race.race_con_solucion;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+// Enfoque original de InventarioSinRace (un ReentrantLock por producto),
+// conservado como línea base para los benchmarks. Sin retrasos simulados.
+class InventarioConLocks {
+    private final int[] stock;
+    private final ReentrantLock[] locks;
+
+    InventarioConLocks(int productos) {
+        stock = new int[productos];
+        locks = new ReentrantLock[productos];
+        for (int i = 0; i < productos; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    void vender(int id, int cantidad) {
+        locks[id].lock();
+        try {
+            stock[id] -= cantidad;
+        } finally {
+            locks[id].unlock();
+        }
+    }
+
+    void reabastecer(int id, int cantidad) {
+        locks[id].lock();
+        try {
+            stock[id] += cantidad;
+        } finally {
+            locks[id].unlock();
+        }
+    }
+
+    boolean tryVender(int id, int cantidad) {
+        locks[id].lock();
+        try {
+            if (stock[id] < cantidad) {
+                return false;
+            }
+            stock[id] -= cantidad;
+            return true;
+        } finally {
+            locks[id].unlock();
+        }
+    }
+
+    int getStock(int id) {
+        locks[id].lock();
+        try {
+            return stock[id];
+        } finally {
+            locks[id].unlock();
+        }
+    }
+}
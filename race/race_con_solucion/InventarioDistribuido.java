@@ -0,0 +1,60 @@
+package race.race_con_solucion;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+// Inventario con contadores DISTRIBUIDOS (striped) por producto, pensado
+// para cargas con muchas escrituras y pocas lecturas (p. ej. hilos de
+// reabastecimiento). Cada producto es un LongAdder: los escritores suman
+// en celdas distintas según el hilo, así que no compiten por la misma
+// línea de caché, y la lectura suma todas las celdas.
+//
+// Contrapartida: la lectura es más cara y no es una foto atómica, y no
+// existe un "vender si hay stock" atómico (usar InventarioAtomico.tryVender).
+public class InventarioDistribuido {
+    private final LongAdder[] stock;
+
+    public InventarioDistribuido(int productos) {
+        stock = new LongAdder[productos];
+        for (int id = 0; id < productos; id++) {
+            stock[id] = new LongAdder();
+        }
+    }
+
+    public void vender(int id, int cantidad) {
+        stock[id].add(-cantidad);
+    }
+
+    public void reabastecer(int id, int cantidad) {
+        stock[id].add(cantidad);
+    }
+
+    public long getStock(int id) {
+        return stock[id].sum();
+    }
+
+    public int getProductos() {
+        return stock.length;
+    }
+
+    // Solo debe llamarse cuando no hay operaciones en curso (entre ejecuciones)
+    public void reiniciar(int valor) {
+        for (LongAdder contador : stock) {
+            contador.reset();
+            contador.add(valor);
+        }
+    }
+
+    public long[] toArray() {
+        long[] copia = new long[stock.length];
+        for (int id = 0; id < stock.length; id++) {
+            copia[id] = getStock(id);
+        }
+        return copia;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
@@ -1,23 +1,15 @@
 package race.race_con_solucion;
 
-import java.util.Arrays;
 import java.util.Random;
-import java.util.concurrent.locks.ReentrantLock;
 
 public class InventarioSinRace {
-    static int[] stock = new int[10];
-    static final ReentrantLock[] locks = new ReentrantLock[10];
+    // Stock protegido con operaciones atómicas (sin locks)
+    static final InventarioAtomico inventario = new InventarioAtomico(10);
     static final Random rand = new Random();
 
-    static {
-        for (int i = 0; i < 10; i++) {
-            locks[i] = new ReentrantLock();
-        }
-    }
-
     public static void main(String[] args) throws InterruptedException {
         for (int run = 1; run <= 10; run++) {
-            Arrays.fill(stock, 100);
+            inventario.reiniciar(100);
             Thread[] threads = new Thread[20];
 
             // MISMA CONFIGURACIÓN: 2 threads por producto
@@ -46,7 +38,7 @@ public class InventarioSinRace {
             for (Thread t : threads) t.join();
 
             System.out.printf("SIN RC Ejecución #%d | Stock: %s%n", 
-                run, Arrays.toString(stock));
+                run, inventario);
         }
     }
 
@@ -55,14 +47,9 @@ public class InventarioSinRace {
         try {
             Thread.sleep(rand.nextInt(5, 25)); // Simular procesamiento
             
-            locks[id].lock();
-            try {
-                int temporal = stock[id];
-                Thread.sleep(rand.nextInt(1, 5)); // Mismo retraso, pero seguro
-                stock[id] = temporal - cantidad;
-            } finally {
-                locks[id].unlock();
-            }
+            // Leer-modificar-escribir en una sola operación atómica:
+            // no existe ventana entre la lectura y la escritura
+            inventario.vender(id, cantidad);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
@@ -72,14 +59,7 @@ public class InventarioSinRace {
         try {
             Thread.sleep(rand.nextInt(5, 25)); // Simular procesamiento
             
-            locks[id].lock();
-            try {
-                int temporal = stock[id];
-                Thread.sleep(rand.nextInt(1, 5)); // Mismo retraso, pero seguro
-                stock[id] = temporal + cantidad;
-            } finally {
-                locks[id].unlock();
-            }
+            inventario.reabastecer(id, cantidad);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
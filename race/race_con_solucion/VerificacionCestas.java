@@ -0,0 +1,141 @@
+package race.race_con_solucion;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Verificación concurrente de InventarioAtomico.aplicarCesta.
+//
+// 1. Cestas solapadas: cada cesta mueve unidades entre 2-4 productos al azar
+//    (los deltas suman 0) y cada tryVender se reabastece después, así que el
+//    stock total debe conservarse y ningún lector debe verlo negativo.
+//    - Stock holgado: ninguna cesta ni tryVender puede fallar
+//    - Stock escaso: muchas fallan, pero el total se conserva
+// 2. Aislamiento: una cesta que siempre falla ({0: -1, 1: -1} con el producto
+//    1 a cero) no debe hacer fallar a un tryVender concurrente sobre la única
+//    unidad del producto 0 (una reserva-y-devolución sí lo haría)
+//
+// Termina con código 1 si alguna comprobación falla.
+public class VerificacionCestas {
+    static final int PRODUCTOS = 8;
+    static final int HILOS = 8;
+    static final int OPERACIONES_POR_HILO = 200_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        boolean ok = verificarSolapadas("stock holgado", 1_000_000, true);
+        ok &= verificarSolapadas("stock escaso", 5, false);
+        ok &= verificarAislamiento();
+        System.out.println(ok ? "\n✅ Cestas correctas" : "\n⚠️  Fallaron comprobaciones de cestas");
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean verificarSolapadas(String nombre, int stockInicial, boolean sinFallos)
+            throws InterruptedException {
+        InventarioAtomico inventario = new InventarioAtomico(PRODUCTOS);
+        inventario.reiniciar(stockInicial);
+        AtomicLong cestasFallidas = new AtomicLong();
+        AtomicLong ventasFallidas = new AtomicLong();
+        AtomicLong negativos = new AtomicLong();
+
+        Thread[] hilos = new Thread[HILOS];
+        for (int h = 0; h < HILOS; h++) {
+            hilos[h] = new Thread(() -> {
+                ThreadLocalRandom azar = ThreadLocalRandom.current();
+                for (int k = 0; k < OPERACIONES_POR_HILO; k++) {
+                    if (k % 4 == 3) {
+                        int id = azar.nextInt(PRODUCTOS);
+                        int cantidad = azar.nextInt(1, 4);
+                        if (inventario.tryVender(id, cantidad)) {
+                            inventario.reabastecer(id, cantidad);
+                        } else {
+                            ventasFallidas.incrementAndGet();
+                        }
+                        continue;
+                    }
+                    int lineas = azar.nextInt(2, 5);
+                    int[] ids = new int[lineas];
+                    int[] deltas = new int[lineas];
+                    int suma = 0;
+                    for (int i = 0; i < lineas; i++) {
+                        ids[i] = azar.nextInt(PRODUCTOS);
+                        deltas[i] = i < lineas - 1 ? azar.nextInt(-3, 4) : -suma;
+                        suma += deltas[i];
+                    }
+                    if (!inventario.aplicarCesta(ids, deltas)) {
+                        cestasFallidas.incrementAndGet();
+                    }
+                }
+            }, "cestas-" + h);
+        }
+        Thread lector = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                for (int id = 0; id < PRODUCTOS; id++) {
+                    if (inventario.getStock(id) < 0) {
+                        negativos.incrementAndGet();
+                    }
+                }
+            }
+        }, "cestas-lector");
+
+        for (Thread t : hilos) t.start();
+        lector.start();
+        for (Thread t : hilos) t.join();
+        lector.interrupt();
+        lector.join();
+
+        long total = 0;
+        for (int id = 0; id < PRODUCTOS; id++) {
+            total += inventario.getStock(id);
+        }
+        System.out.printf("%n[%s] cestas fallidas %,d, tryVender fallidas %,d, total %,d%n",
+            nombre, cestasFallidas.get(), ventasFallidas.get(), total);
+        boolean ok = comprobar(total == (long) stockInicial * PRODUCTOS, "stock total conservado");
+        ok &= comprobar(negativos.get() == 0, "ningún lector vio stock negativo");
+        if (sinFallos) {
+            ok &= comprobar(cestasFallidas.get() == 0 && ventasFallidas.get() == 0,
+                "ninguna cesta ni venta falla con stock suficiente");
+        }
+        return ok;
+    }
+
+    private static boolean verificarAislamiento() throws InterruptedException {
+        InventarioAtomico inventario = new InventarioAtomico(2);
+        inventario.reabastecer(0, 1);
+        AtomicLong cestasExitosas = new AtomicLong();
+        AtomicLong ventasFallidas = new AtomicLong();
+
+        Thread cestas = new Thread(() -> {
+            for (int k = 0; k < OPERACIONES_POR_HILO; k++) {
+                if (inventario.aplicarCesta(new int[] {0, 1}, new int[] {-1, -1})) {
+                    cestasExitosas.incrementAndGet();
+                }
+            }
+        }, "cestas-fallidas");
+        Thread vendedor = new Thread(() -> {
+            for (int k = 0; k < OPERACIONES_POR_HILO; k++) {
+                if (inventario.tryVender(0, 1)) {
+                    inventario.reabastecer(0, 1);
+                } else {
+                    ventasFallidas.incrementAndGet();
+                }
+            }
+        }, "cestas-vendedor");
+        cestas.start();
+        vendedor.start();
+        cestas.join();
+        vendedor.join();
+
+        System.out.printf("%n[aislamiento] cestas exitosas %,d, tryVender fallidas %,d%n",
+            cestasExitosas.get(), ventasFallidas.get());
+        boolean ok = comprobar(cestasExitosas.get() == 0, "la cesta sin stock nunca se aplica");
+        ok &= comprobar(ventasFallidas.get() == 0, "tryVender no ve reservas de cestas fallidas");
+        ok &= comprobar(inventario.getStock(0) == 1 && inventario.getStock(1) == 0, "stock final intacto");
+        return ok;
+    }
+
+    private static boolean comprobar(boolean condicion, String descripcion) {
+        System.out.println("  " + (condicion ? "✅ " : "⚠️  ") + descripcion);
+        return condicion;
+    }
+}
@@ -0,0 +1,109 @@
+package starvation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias estilo HDR: memoria fija, registrar sin asignar
+ * memoria ni tomar locks, y percentiles con error relativo acotado.
+ *
+ * Cubetas log-lineales: los valores 0..63 tienen cubeta propia; a partir de
+ * ahí cada potencia de 2 se divide en 32 cubetas iguales, así que el error
+ * de un percentil es como mucho ~3% del valor (1/32). Todo el rango de long
+ * cabe en 1920 cubetas (~15 KB).
+ *
+ * Las unidades las decide quien registra (p. ej. microsegundos).
+ */
+public final class HistogramaLatencias {
+    private static final int SUBCUBETAS = 32;
+    private static final int BITS_SUBCUBETA = 5;
+    private static final int LINEALES = 2 * SUBCUBETAS;
+    private static final int NUM_CUBETAS = (63 - BITS_SUBCUBETA) * SUBCUBETAS + LINEALES;
+
+    private final AtomicLongArray cuentas = new AtomicLongArray(NUM_CUBETAS);
+    private final AtomicLong maximo = new AtomicLong();
+
+    public void registrar(long valor) {
+        if (valor < 0) {
+            valor = 0;
+        }
+        cuentas.incrementAndGet(indice(valor));
+        long actual;
+        while (valor > (actual = maximo.get()) && !maximo.compareAndSet(actual, valor)) {
+            // Otro hilo subió el máximo: reintentar con el nuevo valor
+        }
+    }
+
+    static int indice(long valor) {
+        if (valor < LINEALES) {
+            return (int) valor;
+        }
+        int desplazamiento = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUBCUBETA;
+        return desplazamiento * SUBCUBETAS + (int) (valor >>> desplazamiento);
+    }
+
+    // Mayor valor que cae en la cubeta 'indice'
+    static long limiteSuperior(int indice) {
+        if (indice < LINEALES) {
+            return indice;
+        }
+        int desplazamiento = indice / SUBCUBETAS - 1;
+        long mantisa = indice - (long) desplazamiento * SUBCUBETAS;
+        return ((mantisa + 1) << desplazamiento) - 1;
+    }
+
+    public Instantanea instantanea() {
+        return new Instantanea(this);
+    }
+
+    public void reiniciar() {
+        for (int i = 0; i < NUM_CUBETAS; i++) {
+            cuentas.set(i, 0);
+        }
+        maximo.set(0);
+    }
+
+    /**
+     * Copia de las cubetas en un momento dado (los registros concurrentes
+     * pueden entrar o no). Es la única parte que asigna memoria.
+     */
+    public static final class Instantanea {
+        private final long[] cuentas = new long[NUM_CUBETAS];
+        private final long total;
+        private final long maximo;
+
+        private Instantanea(HistogramaLatencias h) {
+            long suma = 0;
+            for (int i = 0; i < NUM_CUBETAS; i++) {
+                cuentas[i] = h.cuentas.get(i);
+                suma += cuentas[i];
+            }
+            this.total = suma;
+            this.maximo = h.maximo.get();
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getMaximo() {
+            return maximo;
+        }
+
+        // Valor por debajo del cual queda el p% de los registros (0 si no hay ninguno)
+        public long percentil(double p) {
+            if (total == 0) {
+                return 0;
+            }
+            long objetivo = Math.max(1, (long) Math.ceil(p / 100.0 * total));
+            long acumulado = 0;
+            for (int i = 0; i < NUM_CUBETAS; i++) {
+                acumulado += cuentas[i];
+                if (acumulado >= objetivo) {
+                    return Math.min(limiteSuperior(i), maximo);
+                }
+            }
+            return maximo;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package starvation;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Contadores por tipo de tarea de una cola: tareas EN COLA y PROCESADAS.
+ *
+ * La cola actualiza EN COLA en cada agregar/obtener (con su propio lock ya
+ * tomado), así que nunca hace falta recorrerla para contar. PROCESADAS la
+ * registra el consumidor al TERMINAR cada tarea: una tarea extraída pero aún
+ * en proceso no cuenta en ninguno de los dos. Las lecturas no
+ * toman ningún lock: un monitor puede consultarlos con cualquier frecuencia
+ * sin competir con productores ni consumidores.
+ *
+ * Cada contador es exacto por sí mismo; leer varios no es una foto atómica
+ * de la cola (puede haber un agregar/obtener entre dos lecturas).
+ *
+ * @param <T> enum de tipos de tarea (se indexa por ordinal)
+ */
+public final class MetricasCola<T extends Enum<T>> {
+    private final AtomicIntegerArray enCola;
+    private final AtomicIntegerArray procesadas;
+
+    public MetricasCola(Class<T> tipos) {
+        int n = tipos.getEnumConstants().length;
+        this.enCola = new AtomicIntegerArray(n);
+        this.procesadas = new AtomicIntegerArray(n);
+    }
+
+    public void registrarEncolada(T tipo) {
+        enCola.incrementAndGet(tipo.ordinal());
+    }
+
+    // La tarea sale de la cola para procesarse
+    public void registrarExtraida(T tipo) {
+        enCola.decrementAndGet(tipo.ordinal());
+    }
+
+    // El consumidor terminó de procesar la tarea
+    public void registrarProcesada(T tipo) {
+        procesadas.incrementAndGet(tipo.ordinal());
+    }
+
+    public int getEnCola(T tipo) {
+        return enCola.get(tipo.ordinal());
+    }
+
+    public int getProcesadas(T tipo) {
+        return procesadas.get(tipo.ordinal());
+    }
+
+    public int getTotalEnCola() {
+        int total = 0;
+        for (int i = 0; i < enCola.length(); i++) {
+            total += enCola.get(i);
+        }
+        return total;
+    }
+
+    public int getTotalProcesadas() {
+        int total = 0;
+        for (int i = 0; i < procesadas.length(); i++) {
+            total += procesadas.get(i);
+        }
+        return total;
+    }
+}
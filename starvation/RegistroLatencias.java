@@ -0,0 +1,93 @@
+package starvation;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Latencias por tipo de tarea, en microsegundos:
+ * - ESPERA: desde que se crea la tarea hasta que un consumidor la saca de la cola
+ * - SERVICIO: lo que tarda el consumidor en procesarla
+ *
+ * Un HistogramaLatencias por tipo y medida, creados al construir el registro:
+ * registrar no asigna memoria ni toma locks, así que se puede llamar desde
+ * cada consumidor en cada tarea.
+ *
+ * @param <T> enum de tipos de tarea (se indexa por ordinal)
+ */
+public final class RegistroLatencias<T extends Enum<T>> {
+    private static final DateTimeFormatter HORA = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
+    private final T[] tipos;
+    private final HistogramaLatencias[] espera;
+    private final HistogramaLatencias[] servicio;
+
+    public RegistroLatencias(Class<T> claseTipos) {
+        this.tipos = claseTipos.getEnumConstants();
+        this.espera = new HistogramaLatencias[tipos.length];
+        this.servicio = new HistogramaLatencias[tipos.length];
+        for (int i = 0; i < tipos.length; i++) {
+            espera[i] = new HistogramaLatencias();
+            servicio[i] = new HistogramaLatencias();
+        }
+    }
+
+    public void registrarEspera(T tipo, long micros) {
+        espera[tipo.ordinal()].registrar(micros);
+    }
+
+    public void registrarServicio(T tipo, long micros) {
+        servicio[tipo.ordinal()].registrar(micros);
+    }
+
+    public HistogramaLatencias getEspera(T tipo) {
+        return espera[tipo.ordinal()];
+    }
+
+    public HistogramaLatencias getServicio(T tipo) {
+        return servicio[tipo.ordinal()];
+    }
+
+    // Vacía todos los histogramas (p. ej. al terminar un calentamiento)
+    public void reiniciar() {
+        for (int i = 0; i < tipos.length; i++) {
+            espera[i].reiniciar();
+            servicio[i].reiniciar();
+        }
+    }
+
+    // Tabla de percentiles (en ms) de espera y servicio por tipo
+    public void imprimir(PrintStream salida) {
+        salida.printf("%-6s %-9s %10s %10s %10s %10s %10s%n",
+            "Tipo", "Medida", "n", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (T tipo : tipos) {
+            imprimirFila(salida, tipo, "espera", espera[tipo.ordinal()].instantanea());
+            imprimirFila(salida, tipo, "servicio", servicio[tipo.ordinal()].instantanea());
+        }
+    }
+
+    private static void imprimirFila(PrintStream salida, Enum<?> tipo, String medida,
+                                     HistogramaLatencias.Instantanea h) {
+        salida.printf("%-6s %-9s %,10d %10.1f %10.1f %10.1f %10.1f%n", tipo.name(), medida, h.getTotal(),
+            h.percentil(50) / 1000.0, h.percentil(99) / 1000.0, h.percentil(99.9) / 1000.0,
+            h.getMaximo() / 1000.0);
+    }
+
+    // Añade al final de 'ruta' un bloque con la hora, 'etiqueta' y la tabla de percentiles
+    public void anexarInforme(Path ruta, String etiqueta) {
+        try (PrintStream salida = new PrintStream(Files.newOutputStream(ruta,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), false, StandardCharsets.UTF_8.name())) {
+            salida.println("== " + LocalTime.now().format(HORA) + " " + etiqueta);
+            imprimir(salida);
+            salida.println();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
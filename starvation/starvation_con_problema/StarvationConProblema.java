@@ -3,9 +3,14 @@ package starvation.starvation_con_problema;
 import java.util.LinkedList;
 import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import starvation.MetricasCola;
+import starvation.RegistroLatencias;
+
 /**
  * Implementación de un sistema de procesamiento de tareas CON PROBLEMA DE STARVATION
  * 
@@ -41,19 +46,40 @@ public class StarvationConProblema {
     
     // Clase que representa una tarea
     static class Tarea {
-        private static int contadorId = 0;
+        // IDs por bloques: cada hilo productor reserva un bloque de IDs con
+        // una sola operación atómica y luego los asigna sin tocar estado
+        // compartido. Los IDs son únicos y crecen aproximadamente en orden.
+        private static final int TAMANO_BLOQUE_IDS = 8;
+        private static final AtomicInteger siguienteBloque = new AtomicInteger(0);
+        // {siguiente ID a entregar, límite exclusivo del bloque}
+        private static final ThreadLocal<int[]> bloqueIds =
+            ThreadLocal.withInitial(() -> new int[2]);
+        
         private final int id;
         private final TipoTarea tipo;
         private final long tiempoCreacion;
+        private final long nanosCreacion;
         
         public Tarea(TipoTarea tipo) {
-            this.id = ++contadorId;
+            this.id = siguienteId();
             this.tipo = tipo;
             this.tiempoCreacion = System.currentTimeMillis();
+            this.nanosCreacion = System.nanoTime();
+        }
+        
+        private static int siguienteId() {
+            int[] bloque = bloqueIds.get();
+            if (bloque[0] == bloque[1]) {
+                int inicio = siguienteBloque.getAndAdd(TAMANO_BLOQUE_IDS) + 1;
+                bloque[0] = inicio;
+                bloque[1] = inicio + TAMANO_BLOQUE_IDS;
+            }
+            return bloque[0]++;
         }
         
         public int getId() { return id; }
         public TipoTarea getTipo() { return tipo; }
+        public long getNanosCreacion() { return nanosCreacion; }
         public long getTiempoEspera() { 
             return System.currentTimeMillis() - tiempoCreacion; 
         }
@@ -65,93 +91,110 @@ public class StarvationConProblema {
     }
     
     // Cola compartida de tareas
+    // Usa un Lock con dos condiciones separadas (no llena / no vacía):
+    // agregar solo despierta a un consumidor y obtener solo a un productor,
+    // en lugar de despertar a todos los hilos con notifyAll()
     static class ColaCompartida {
         private final Queue<Tarea> cola;
         private final int capacidadMaxima;
         private final Lock lock;
+        private final Condition noLlena;
+        private final Condition noVacia;
+        // Contadores por tipo mantenidos en agregar/obtener: contar no recorre la cola
+        private final MetricasCola<TipoTarea> metricas = new MetricasCola<>(TipoTarea.class);
+        // Latencias de espera y servicio, solo de las tareas que llegan a procesarse
+        private final RegistroLatencias<TipoTarea> latencias = new RegistroLatencias<>(TipoTarea.class);
         
         public ColaCompartida(int capacidad) {
             this.cola = new LinkedList<>();
             this.capacidadMaxima = capacidad;
             this.lock = new ReentrantLock();
+            this.noLlena = lock.newCondition();
+            this.noVacia = lock.newCondition();
         }
         
         // Agregar tarea a la cola
-        public synchronized boolean agregar(Tarea tarea) throws InterruptedException {
-            while (cola.size() >= capacidadMaxima) {
-                wait(); // Espera si la cola está llena
+        public boolean agregar(Tarea tarea) throws InterruptedException {
+            lock.lock();
+            try {
+                while (cola.size() >= capacidadMaxima) {
+                    noLlena.await(); // Espera si la cola está llena
+                }
+                cola.offer(tarea);
+                metricas.registrarEncolada(tarea.getTipo());
+                noVacia.signal();
+                return true;
+            } finally {
+                lock.unlock();
             }
-            cola.offer(tarea);
-            notifyAll();
-            return true;
         }
         
         // Obtener tarea CON PRIORIDAD (causa starvation)
         // PROBLEMA: Siempre busca primero tareas A, luego M, ignorando B
-        public synchronized Tarea obtener() throws InterruptedException {
-            while (cola.isEmpty()) {
-                wait();
-            }
-            
-            // POLÍTICA QUE CAUSA STARVATION: Siempre priorizar A y M
-            Tarea tareaSeleccionada = null;
-            
-            // Buscar primero tareas tipo A
-            for (Tarea t : cola) {
-                if (t.getTipo() == TipoTarea.A) {
-                    tareaSeleccionada = t;
-                    break;
+        public Tarea obtener() throws InterruptedException {
+            lock.lock();
+            try {
+                while (cola.isEmpty()) {
+                    noVacia.await();
                 }
-            }
-            
-            // Si no hay A, buscar tipo M
-            if (tareaSeleccionada == null) {
+                
+                // POLÍTICA QUE CAUSA STARVATION: Siempre priorizar A y M
+                Tarea tareaSeleccionada = null;
+                
+                // Buscar primero tareas tipo A
                 for (Tarea t : cola) {
-                    if (t.getTipo() == TipoTarea.M) {
+                    if (t.getTipo() == TipoTarea.A) {
                         tareaSeleccionada = t;
                         break;
                     }
                 }
+                
+                // Si no hay A, buscar tipo M
+                if (tareaSeleccionada == null) {
+                    for (Tarea t : cola) {
+                        if (t.getTipo() == TipoTarea.M) {
+                            tareaSeleccionada = t;
+                            break;
+                        }
+                    }
+                }
+                
+                // Solo si no hay A ni M, tomar tipo B
+                if (tareaSeleccionada == null) {
+                    tareaSeleccionada = cola.peek();
+                }
+                
+                cola.remove(tareaSeleccionada);
+                metricas.registrarExtraida(tareaSeleccionada.getTipo());
+                noLlena.signal();
+                return tareaSeleccionada;
+            } finally {
+                lock.unlock();
             }
-            
-            // Solo si no hay A ni M, tomar tipo B
-            if (tareaSeleccionada == null) {
-                tareaSeleccionada = cola.peek();
-            }
-            
-            cola.remove(tareaSeleccionada);
-            notifyAll();
-            return tareaSeleccionada;
         }
         
-        public synchronized int getTamano() {
-            return cola.size();
+        public int getTamano() {
+            return metricas.getTotalEnCola();
         }
         
-        public synchronized int contarTareasTipoB() {
-            int count = 0;
-            for (Tarea t : cola) {
-                if (t.getTipo() == TipoTarea.B) {
-                    count++;
-                }
-            }
-            return count;
+        public RegistroLatencias<TipoTarea> getLatencias() {
+            return latencias;
         }
         
-        public synchronized void mostrarEstado() {
+        public MetricasCola<TipoTarea> getMetricas() {
+            return metricas;
+        }
+        
+        public int contarTareasTipoB() {
+            return metricas.getEnCola(TipoTarea.B);
+        }
+        
+        public void mostrarEstado() {
             System.out.println("\n=== ESTADO DE LA COLA ===");
-            System.out.println("Tamaño actual: " + cola.size() + "/" + capacidadMaxima);
-            int countA = 0, countM = 0, countB = 0;
-            for (Tarea t : cola) {
-                switch (t.getTipo()) {
-                    case A: countA++; break;
-                    case M: countM++; break;
-                    case B: countB++; break;
-                }
-            }
-            System.out.println("Tareas Alta (A): " + countA);
-            System.out.println("Tareas Media (M): " + countM);
-            System.out.println("Tareas Baja (B): " + countB);
+            System.out.println("Tamaño actual: " + metricas.getTotalEnCola() + "/" + capacidadMaxima);
+            System.out.println("Tareas Alta (A): " + metricas.getEnCola(TipoTarea.A));
+            System.out.println("Tareas Media (M): " + metricas.getEnCola(TipoTarea.M));
+            System.out.println("Tareas Baja (B): " + metricas.getEnCola(TipoTarea.B));
         }
     }
     
@@ -216,6 +259,9 @@ public class StarvationConProblema {
             try {
                 while (ejecutando) {
                     Tarea tarea = cola.obtener();
+                    long inicioServicio = System.nanoTime();
+                    cola.getLatencias().registrarEspera(tarea.getTipo(),
+                        (inicioServicio - tarea.getNanosCreacion()) / 1000);
                     
                     long tiempoEspera = tarea.getTiempoEspera();
                     System.out.println(String.format(
@@ -225,6 +271,9 @@ public class StarvationConProblema {
                     
                     // Simular procesamiento
                     Thread.sleep(tarea.getTipo().getTiempoProcesamiento());
+                    cola.getLatencias().registrarServicio(tarea.getTipo(),
+                        (System.nanoTime() - inicioServicio) / 1000);
+                    cola.getMetricas().registrarProcesada(tarea.getTipo());
                     
                     System.out.println(String.format(
                         "Consumidor-%d completó %s",
@@ -350,6 +399,8 @@ public class StarvationConProblema {
             cola.mostrarEstado();
             System.out.println("\nMáximo de tareas tipo B en espera: " + monitor.getMaxTareasB());
             System.out.println("Tiempo total de ejecución: " + (tiempoTotal / 1000.0) + " segundos");
+            System.out.println("\nLatencias por tipo (las tareas B que nunca salieron de la cola no cuentan):");
+            cola.getLatencias().imprimir(System.out);
             System.out.println("\n*** PROBLEMA OBSERVADO: Las tareas tipo B sufren STARVATION ***");
             System.out.println("*** Muchas tareas B quedaron sin procesar debido a la priorización ***");
             System.out.println("==============================================");
@@ -0,0 +1,73 @@
+package starvation.starvation_con_solucion;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import benchmark.ArnesBenchmark;
+import starvation.starvation_con_solucion.StarvationConSolucion.ColaCompartida;
+import starvation.starvation_con_solucion.StarvationConSolucion.Tarea;
+import starvation.starvation_con_solucion.StarvationConSolucion.TipoTarea;
+
+// Benchmark de ColaCompartida.agregar/obtener (capacidad 20, con AGING):
+// la mitad de los hilos produce (agregar) y la otra mitad consume (obtener),
+// sin simular el procesamiento de las tareas. Las latencias incluyen el
+// tiempo bloqueado esperando espacio o tareas.
+//
+// La segunda fila repite la medición con un hilo extra que consulta las
+// métricas de la cola sin pausa (el peor caso de MonitorTareas).
+//
+// La tercera fila consume con obtenerLote(TAMANO_LOTE): cada operación de un
+// consumidor sigue siendo UNA tarea, pero solo una de cada TAMANO_LOTE (como
+// mucho) toma el lock; el resto sale del lote ya extraído.
+public class BenchmarkCola {
+    static final int TAMANO_LOTE = 16;
+
+    public static void main(String[] args) throws InterruptedException {
+        TipoTarea[] tipos = TipoTarea.values();
+        ArnesBenchmark.imprimirEncabezado("BENCHMARK ColaCompartida agregar/obtener (mitad productores, mitad consumidores)");
+        for (int numHilos : ArnesBenchmark.hilos(2, 4, 8, 16, 32, 64)) {
+            if (numHilos < 2) {
+                continue; // Hace falta al menos un productor y un consumidor
+            }
+            ColaCompartida cola = new ColaCompartida(20);
+            ArnesBenchmark.Operacion operacion = h -> {
+                if (h % 2 == 0) {
+                    cola.agregar(new Tarea(tipos[ThreadLocalRandom.current().nextInt(tipos.length)]));
+                } else {
+                    cola.obtener();
+                }
+            };
+            ArnesBenchmark.imprimirFila("agregar + obtener", numHilos, ArnesBenchmark.medir(numHilos, operacion));
+
+            long[] lecturas = {0};
+            Thread monitor = new Thread(() -> {
+                long n = 0;
+                while (!Thread.currentThread().isInterrupted()) {
+                    n += cola.contarTareasTipoB() + cola.getTamano() + cola.getEstadisticas()[0];
+                    lecturas[0]++;
+                }
+            }, "bench-monitor");
+            monitor.setDaemon(true);
+            monitor.start();
+            ArnesBenchmark.imprimirFila("  + monitor sin pausa", numHilos, ArnesBenchmark.medir(numHilos, operacion));
+            monitor.interrupt();
+            monitor.join();
+            System.out.printf("%-28s   %,d consultas del monitor%n", "", lecturas[0]);
+
+            ColaCompartida colaLotes = new ColaCompartida(20);
+            Tarea[][] lotes = new Tarea[numHilos][TAMANO_LOTE];
+            int[] siguiente = new int[numHilos];
+            int[] cantidad = new int[numHilos];
+            ArnesBenchmark.imprimirFila("agregar + obtenerLote(" + TAMANO_LOTE + ")", numHilos, ArnesBenchmark.medir(numHilos, h -> {
+                if (h % 2 == 0) {
+                    colaLotes.agregar(new Tarea(tipos[ThreadLocalRandom.current().nextInt(tipos.length)]));
+                } else {
+                    if (siguiente[h] == cantidad[h]) {
+                        cantidad[h] = colaLotes.obtenerLote(lotes[h]);
+                        siguiente[h] = 0;
+                    }
+                    lotes[h][siguiente[h]++] = null; // Tarea "procesada"
+                }
+            }));
+        }
+    }
+}
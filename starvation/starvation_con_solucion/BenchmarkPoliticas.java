@@ -0,0 +1,121 @@
+package starvation.starvation_con_solucion;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import benchmark.ArnesBenchmark;
+import starvation.HistogramaLatencias;
+import starvation.starvation_con_solucion.StarvationConSolucion.ColaCompartida;
+import starvation.starvation_con_solucion.StarvationConSolucion.Tarea;
+import starvation.starvation_con_solucion.StarvationConSolucion.TipoTarea;
+
+// Benchmark de las políticas de planificación (aging, estricta, stride).
+//
+// 1) Reparto con los tres tipos SIEMPRE pendientes (un solo hilo, sin cola):
+//    cada tarea extraída se repone con otra de su tipo, y se suma su
+//    tiempoProcesamiento al tipo elegido. Muestra qué fracción del tiempo de
+//    consumidor recibe cada tipo y el coste de extraer + agregar. Con una
+//    carga más corta que el horizonte de aging (segundos), aging se comporta
+//    como estricta; stride reparte según sus cuotas desde el principio.
+//
+// 2) ColaCompartida con cada política: mitad productores sin pausa (10% A,
+//    30% M, 60% B), mitad consumidores sin procesamiento simulado. Tras cada
+//    fila, la espera en cola p99 por tipo (sin el calentamiento). Con la cola
+//    acotada, todo lo que entra sale, así que aquí el reparto es el de llegada.
+public class BenchmarkPoliticas {
+    static final String[] POLITICAS = {"aging", "estricta", "stride"};
+    static final int[] CUOTAS = PoliticaStride.CUOTAS_POR_DEFECTO;
+    static final int PENDIENTES_POR_TIPO = 1000;
+    static final int DECISIONES = 1_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        TipoTarea[] tipos = TipoTarea.values();
+        System.out.printf("%nREPARTO del tiempo de consumidor con los tres tipos siempre pendientes (%,d decisiones, stride %d,%d,%d)%n",
+            DECISIONES, CUOTAS[0], CUOTAS[1], CUOTAS[2]);
+        System.out.printf("%-28s | %14s | %7s | %7s | %7s%n", "Política", "ns extraer+agr", "A", "M", "B");
+        System.out.println("-----------------------------+----------------+---------+---------+--------");
+        for (String nombre : POLITICAS) {
+            medirReparto(nombre, tipos); // Calentamiento
+            medirReparto(nombre, tipos).imprimir(nombre);
+        }
+
+        ArnesBenchmark.imprimirEncabezado("BENCHMARK políticas de planificación (ColaCompartida capacidad 20, stride con cuotas A,M,B = "
+            + CUOTAS[0] + "," + CUOTAS[1] + "," + CUOTAS[2] + ")");
+        for (int numHilos : ArnesBenchmark.hilos(2, 8, 32)) {
+            if (numHilos < 2) {
+                continue; // Hace falta al menos un productor y un consumidor
+            }
+            for (String nombre : POLITICAS) {
+                ColaCompartida cola = new ColaCompartida(20, PoliticaPlanificacion.desdeTexto(nombre, CUOTAS).get());
+                Thread reinicio = new Thread(() -> {
+                    try {
+                        Thread.sleep(ArnesBenchmark.CALENTAMIENTO_MS);
+                        cola.getLatencias().reiniciar();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, "bench-reinicio");
+                reinicio.setDaemon(true);
+                reinicio.start();
+
+                ArnesBenchmark.Resultado r = ArnesBenchmark.medir(numHilos, h -> {
+                    if (h % 2 == 0) {
+                        cola.agregar(new Tarea(generarTipo()));
+                    } else {
+                        Tarea tarea = cola.obtener();
+                        cola.getLatencias().registrarEspera(tarea.getTipo(),
+                            (System.nanoTime() - tarea.getNanosCreacion()) / 1000);
+                    }
+                });
+                reinicio.join();
+                ArnesBenchmark.imprimirFila(nombre, numHilos, r);
+                StringBuilder espera = new StringBuilder("espera p99:");
+                for (TipoTarea tipo : tipos) {
+                    HistogramaLatencias.Instantanea h = cola.getLatencias().getEspera(tipo).instantanea();
+                    espera.append(String.format(" %s %,d µs", tipo, h.percentil(99)));
+                }
+                System.out.printf("%-28s   %s%n", "", espera);
+            }
+        }
+    }
+
+    private static final class Reparto {
+        final long[] tiempoPorTipo;
+        final double nsPorDecision;
+
+        Reparto(long[] tiempoPorTipo, double nsPorDecision) {
+            this.tiempoPorTipo = tiempoPorTipo;
+            this.nsPorDecision = nsPorDecision;
+        }
+
+        void imprimir(String politica) {
+            long total = 0;
+            for (long t : tiempoPorTipo) {
+                total += t;
+            }
+            System.out.printf("%-28s | %,14.1f | %6.1f%% | %6.1f%% | %6.1f%%%n", politica, nsPorDecision,
+                tiempoPorTipo[0] * 100.0 / total, tiempoPorTipo[1] * 100.0 / total, tiempoPorTipo[2] * 100.0 / total);
+        }
+    }
+
+    private static Reparto medirReparto(String nombre, TipoTarea[] tipos) {
+        PoliticaPlanificacion politica = PoliticaPlanificacion.desdeTexto(nombre, CUOTAS).get();
+        for (TipoTarea tipo : tipos) {
+            for (int i = 0; i < PENDIENTES_POR_TIPO; i++) {
+                politica.agregar(new Tarea(tipo));
+            }
+        }
+        long[] tiempo = new long[tipos.length];
+        long inicio = System.nanoTime();
+        for (int d = 0; d < DECISIONES; d++) {
+            TipoTarea tipo = politica.extraer().getTipo();
+            tiempo[tipo.ordinal()] += tipo.getTiempoProcesamiento();
+            politica.agregar(new Tarea(tipo));
+        }
+        return new Reparto(tiempo, (System.nanoTime() - inicio) / (double) DECISIONES);
+    }
+
+    private static TipoTarea generarTipo() {
+        int rand = ThreadLocalRandom.current().nextInt(100);
+        return rand < 10 ? TipoTarea.A : rand < 40 ? TipoTarea.M : TipoTarea.B;
+    }
+}
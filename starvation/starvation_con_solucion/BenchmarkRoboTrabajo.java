@@ -0,0 +1,71 @@
+package starvation.starvation_con_solucion;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import benchmark.ArnesBenchmark;
+import starvation.HistogramaLatencias;
+import starvation.starvation_con_solucion.StarvationConSolucion.ColaCompartida;
+import starvation.starvation_con_solucion.StarvationConSolucion.ColaTareas;
+import starvation.starvation_con_solucion.StarvationConSolucion.Tarea;
+import starvation.starvation_con_solucion.StarvationConSolucion.TipoTarea;
+
+// Benchmark de ColaCompartida (un lock para todos) frente a PoolRoboTrabajo
+// (una cola local por consumidor con robo de trabajo).
+//
+// Por cada número de consumidores C hay C productores; los hilos 0..C-1
+// consumen (obtener + registrar la espera) y los demás agregan tareas al azar
+// (10% A, 30% M, 60% B). Sin procesamiento simulado: se mide solo el coste de
+// la cola. Capacidad CAPACIDAD_POR_CONSUMIDOR * C en ambas variantes.
+//
+// ops/s cuenta agregar y obtener (≈ 2 por tarea). Tras cada fila se imprime la
+// espera en cola p99 por tipo (desde que se crea la tarea hasta que se extrae),
+// sin el calentamiento.
+public class BenchmarkRoboTrabajo {
+    static final int CAPACIDAD_POR_CONSUMIDOR = 8;
+
+    public static void main(String[] args) throws InterruptedException {
+        ArnesBenchmark.imprimirEncabezado("BENCHMARK cola compartida vs robo de trabajo (hilos = consumidores, + igual número de productores)");
+        for (int numConsumidores : ArnesBenchmark.hilos(3, 16, 64)) {
+            int capacidad = CAPACIDAD_POR_CONSUMIDOR * numConsumidores;
+            medir("Cola compartida", numConsumidores, new ColaCompartida(capacidad));
+            medir("Robo de trabajo", numConsumidores, new PoolRoboTrabajo(capacidad, numConsumidores));
+        }
+    }
+
+    private static void medir(String variante, int numConsumidores, ColaTareas cola) throws InterruptedException {
+        // Las esperas del calentamiento no cuentan
+        Thread reinicio = new Thread(() -> {
+            try {
+                Thread.sleep(ArnesBenchmark.CALENTAMIENTO_MS);
+                cola.getLatencias().reiniciar();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "bench-reinicio");
+        reinicio.setDaemon(true);
+        reinicio.start();
+
+        ArnesBenchmark.Resultado r = ArnesBenchmark.medir(2 * numConsumidores, h -> {
+            if (h < numConsumidores) {
+                Tarea tarea = cola.obtener(h);
+                cola.getLatencias().registrarEspera(tarea.getTipo(), (System.nanoTime() - tarea.getNanosCreacion()) / 1000);
+            } else {
+                cola.agregar(new Tarea(generarTipo()));
+            }
+        });
+        reinicio.join();
+        ArnesBenchmark.imprimirFila(variante, numConsumidores, r);
+
+        StringBuilder linea = new StringBuilder("espera p99:");
+        for (TipoTarea tipo : TipoTarea.values()) {
+            HistogramaLatencias.Instantanea h = cola.getLatencias().getEspera(tipo).instantanea();
+            linea.append(String.format(" %s %,d µs", tipo, h.percentil(99)));
+        }
+        System.out.printf("%-28s   %s%n", "", linea);
+    }
+
+    private static TipoTarea generarTipo() {
+        int rand = ThreadLocalRandom.current().nextInt(100);
+        return rand < 10 ? TipoTarea.A : rand < 40 ? TipoTarea.M : TipoTarea.B;
+    }
+}
@@ -0,0 +1,47 @@
+package starvation.starvation_con_solucion;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Modo de ejecución de los productores y consumidores de StarvationConSolucion.
+ *
+ * - PLATAFORMA: un hilo del sistema operativo por productor/consumidor
+ * - VIRTUAL: hilos virtuales (Java 21+). El trabajo de cada hilo es casi todo
+ *   Thread.sleep(), así que miles de consumidores comparten unos pocos hilos
+ *   portadores. ColaCompartida bloquea con Lock/Condition, que libera el hilo
+ *   portador mientras espera (synchronized + wait() lo dejaría anclado).
+ *
+ * Los hilos virtuales se obtienen por reflexión para que el proyecto siga
+ * compilando con JDK 17; si la JVM no los soporta se usa PLATAFORMA.
+ */
+enum ModoEjecucion {
+    PLATAFORMA,
+    VIRTUAL;
+
+    // Acepta "plataforma" o "virtual" (sin distinguir mayúsculas)
+    static ModoEjecucion desdeTexto(String texto) {
+        return valueOf(texto.trim().toUpperCase());
+    }
+
+    ThreadFactory crearFabrica() {
+        if (this == VIRTUAL) {
+            ThreadFactory fabrica = fabricaVirtual();
+            if (fabrica != null) {
+                return fabrica;
+            }
+            System.out.println("*** Esta JVM no soporta hilos virtuales: se usan hilos de plataforma ***");
+        }
+        return Thread::new;
+    }
+
+    // Equivale a Thread.ofVirtual().factory() en Java 21+
+    private static ThreadFactory fabricaVirtual() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> tipoBuilder = Class.forName("java.lang.Thread$Builder");
+            return (ThreadFactory) tipoBuilder.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+}
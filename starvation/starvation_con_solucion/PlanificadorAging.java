@@ -0,0 +1,79 @@
+package starvation.starvation_con_solucion;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import starvation.starvation_con_solucion.StarvationConSolucion.Tarea;
+import starvation.starvation_con_solucion.StarvationConSolucion.TipoTarea;
+
+/**
+ * Planificador indexado que aplica la misma política de AGING que
+ * StarvationConSolucion sin recorrer toda la cola en cada extracción.
+ *
+ * Idea: el aging es lineal en el tiempo de espera, así que
+ *   prioridad_efectiva = prioridad_base + (ahora - creacion) / 1000 * 0.5
+ * ordena las tareas igual que la clave estática
+ *   clave = prioridad_base * 2000 - creacion
+ * (el término "ahora" es común a todas las tareas y no altera el orden).
+ *
+ * Características:
+ * - Una cubeta FIFO por TipoTarea, ordenada por tiempo de creación
+ * - La cabeza de cada cubeta es su tarea de mayor prioridad efectiva
+ * - Elegir la siguiente tarea compara solo 3 cabezas: O(1)
+ * - Insertar/extraer en la cubeta: O(log n)
+ *
+ * Es la PoliticaPlanificacion por defecto.
+ * No es thread-safe: ColaCompartida lo protege con su propio lock.
+ */
+class PlanificadorAging implements PoliticaPlanificacion {
+
+    // FIFO por creación; el id desempata tareas creadas en el mismo milisegundo
+    private static final Comparator<Tarea> ORDEN_FIFO = Comparator
+        .comparingLong(Tarea::getTiempoCreacion)
+        .thenComparingInt(Tarea::getId);
+
+    private final Map<TipoTarea, PriorityQueue<Tarea>> cubetas;
+    private int tamano = 0;
+
+    public PlanificadorAging() {
+        this.cubetas = new EnumMap<>(TipoTarea.class);
+        for (TipoTarea tipo : TipoTarea.values()) {
+            cubetas.put(tipo, new PriorityQueue<>(ORDEN_FIFO));
+        }
+    }
+
+    @Override
+    public void agregar(Tarea tarea) {
+        cubetas.get(tarea.getTipo()).offer(tarea);
+        tamano++;
+    }
+
+    // Extrae la tarea con mayor prioridad efectiva (null si está vacío)
+    @Override
+    public Tarea extraer() {
+        PriorityQueue<Tarea> mejor = null;
+        long mejorClave = Long.MIN_VALUE;
+
+        // Recorre en orden A, M, B: ante empate gana el tipo de mayor prioridad base
+        for (PriorityQueue<Tarea> cubeta : cubetas.values()) {
+            Tarea cabeza = cubeta.peek();
+            if (cabeza != null && cabeza.getClaveAging() > mejorClave) {
+                mejor = cubeta;
+                mejorClave = cabeza.getClaveAging();
+            }
+        }
+
+        if (mejor == null) {
+            return null;
+        }
+        tamano--;
+        return mejor.poll();
+    }
+
+    @Override
+    public int getTamano() {
+        return tamano;
+    }
+}
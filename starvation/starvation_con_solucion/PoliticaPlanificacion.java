@@ -0,0 +1,50 @@
+package starvation.starvation_con_solucion;
+
+import java.util.function.Supplier;
+
+import starvation.starvation_con_solucion.StarvationConSolucion.Tarea;
+
+/**
+ * Política de planificación de una cola de tareas: decide qué tarea sale en
+ * cada extracción. ColaCompartida y PoolRoboTrabajo solo la usan a través de
+ * esta interfaz, así que cambiar de política no toca la sincronización.
+ *
+ * Implementaciones:
+ * - PlanificadorAging: prioridad base + envejecimiento (la solución por defecto)
+ * - PoliticaPrioridadEstricta: siempre A > M > B (reproduce la inanición)
+ * - PoliticaStride: cada tipo recibe una cuota fija del tiempo de consumidor
+ *
+ * No es thread-safe: la cola que la usa la protege con su propio lock.
+ */
+interface PoliticaPlanificacion {
+
+    void agregar(Tarea tarea);
+
+    // Siguiente tarea según la política (null si está vacía)
+    Tarea extraer();
+
+    int getTamano();
+
+    default boolean estaVacio() {
+        return getTamano() == 0;
+    }
+
+    /**
+     * Fábrica de políticas a partir de su nombre: "aging", "estricta" o
+     * "stride" (sin distinguir mayúsculas). 'cuotas' solo se usa con stride.
+     * Devuelve una fábrica porque PoolRoboTrabajo necesita una instancia por
+     * cola local.
+     */
+    static Supplier<PoliticaPlanificacion> desdeTexto(String texto, int[] cuotas) {
+        switch (texto.trim().toLowerCase()) {
+            case "aging":
+                return PlanificadorAging::new;
+            case "estricta":
+                return PoliticaPrioridadEstricta::new;
+            case "stride":
+                return () -> new PoliticaStride(cuotas);
+            default:
+                throw new IllegalArgumentException("Política desconocida: " + texto + " (aging, estricta o stride)");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package starvation.starvation_con_solucion;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+
+import starvation.starvation_con_solucion.StarvationConSolucion.Tarea;
+import starvation.starvation_con_solucion.StarvationConSolucion.TipoTarea;
+
+/**
+ * Prioridad ESTRICTA, la misma política que StarvationConProblema: siempre la
+ * tarea más antigua del tipo de mayor prioridad base (A, luego M, luego B).
+ *
+ * Sirve de referencia: bajo carga sostenida de A y M las tareas B no salen
+ * nunca (inanición).
+ */
+class PoliticaPrioridadEstricta implements PoliticaPlanificacion {
+    private final Map<TipoTarea, ArrayDeque<Tarea>> colas = new EnumMap<>(TipoTarea.class);
+    private int tamano = 0;
+
+    public PoliticaPrioridadEstricta() {
+        for (TipoTarea tipo : TipoTarea.values()) {
+            colas.put(tipo, new ArrayDeque<>());
+        }
+    }
+
+    @Override
+    public void agregar(Tarea tarea) {
+        colas.get(tarea.getTipo()).addLast(tarea);
+        tamano++;
+    }
+
+    @Override
+    public Tarea extraer() {
+        // EnumMap recorre en orden A, M, B
+        for (ArrayDeque<Tarea> cola : colas.values()) {
+            if (!cola.isEmpty()) {
+                tamano--;
+                return cola.pollFirst();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getTamano() {
+        return tamano;
+    }
+}
@@ -0,0 +1,109 @@
+package starvation.starvation_con_solucion;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import starvation.starvation_con_solucion.StarvationConSolucion.Tarea;
+import starvation.starvation_con_solucion.StarvationConSolucion.TipoTarea;
+
+/**
+ * STRIDE SCHEDULING (equivalente a weighted fair queueing entre tipos): cada
+ * TipoTarea recibe una cuota configurada del TIEMPO de consumidor, en lugar de
+ * ajustar una constante de aging.
+ *
+ * - Cada tipo tiene un "pase" (tiempo virtual consumido); sale la tarea más
+ *   antigua del tipo con pase menor
+ * - Al extraer una tarea su tipo avanza tiempoProcesamiento * ESCALA / cuota:
+ *   con todos los tipos ocupados, el tiempo de proceso se reparte en
+ *   proporción a las cuotas (con 5,3,2: A 50%, M 30%, B 20%)
+ * - Un tipo que estaba vacío vuelve con pase >= tiempo virtual actual: no
+ *   acumula crédito mientras no tiene tareas, y la cuota que no usa se reparte
+ *   entre los demás
+ * - Solo los tipos con tareas están en el montículo: O(log n) por decisión
+ *   (n = número de tipos); cada tipo es una FIFO, O(1)
+ *
+ * Toda tarea sale en un tiempo acotado: su tipo tiene cuota > 0 y las tareas
+ * anteriores de su FIFO son finitas.
+ */
+class PoliticaStride implements PoliticaPlanificacion {
+    static final int[] CUOTAS_POR_DEFECTO = {5, 3, 2};
+    private static final long ESCALA = 1L << 20;
+
+    private final Map<TipoTarea, ArrayDeque<Tarea>> colas = new EnumMap<>(TipoTarea.class);
+    // Indexados por ordinal
+    private final long[] zancada;
+    private final long[] pase;
+    // Tipos con tareas, por pase (a igual pase, el de mayor prioridad base)
+    private final PriorityQueue<TipoTarea> activos;
+    private long tiempoVirtual = 0;
+    private int tamano = 0;
+
+    public PoliticaStride() {
+        this(CUOTAS_POR_DEFECTO);
+    }
+
+    // cuotas[i] es la cuota del tipo de ordinal i (enteros > 0)
+    public PoliticaStride(int[] cuotas) {
+        TipoTarea[] tipos = TipoTarea.values();
+        if (cuotas.length != tipos.length) {
+            throw new IllegalArgumentException("Se esperaban " + tipos.length + " cuotas: " + Arrays.toString(cuotas));
+        }
+        this.zancada = new long[tipos.length];
+        this.pase = new long[tipos.length];
+        for (TipoTarea tipo : tipos) {
+            int cuota = cuotas[tipo.ordinal()];
+            if (cuota <= 0) {
+                throw new IllegalArgumentException("Cuota no positiva para " + tipo + ": " + cuota);
+            }
+            zancada[tipo.ordinal()] = ESCALA / cuota;
+            colas.put(tipo, new ArrayDeque<>());
+        }
+        this.activos = new PriorityQueue<>(tipos.length,
+            Comparator.<TipoTarea>comparingLong(t -> pase[t.ordinal()]).thenComparingInt(TipoTarea::ordinal));
+    }
+
+    // "5,3,2" -> {5, 3, 2} (en el orden de TipoTarea)
+    static int[] cuotasDesdeTexto(String texto) {
+        return Arrays.stream(texto.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+    }
+
+    @Override
+    public void agregar(Tarea tarea) {
+        TipoTarea tipo = tarea.getTipo();
+        ArrayDeque<Tarea> cola = colas.get(tipo);
+        if (cola.isEmpty()) {
+            // Vuelve a competir: sin crédito por el tiempo que estuvo vacío
+            pase[tipo.ordinal()] = Math.max(pase[tipo.ordinal()], tiempoVirtual);
+            activos.add(tipo);
+        }
+        cola.addLast(tarea);
+        tamano++;
+    }
+
+    @Override
+    public Tarea extraer() {
+        TipoTarea tipo = activos.poll();
+        if (tipo == null) {
+            return null;
+        }
+        int i = tipo.ordinal();
+        ArrayDeque<Tarea> cola = colas.get(tipo);
+        Tarea tarea = cola.pollFirst();
+        tiempoVirtual = pase[i];
+        pase[i] += tipo.getTiempoProcesamiento() * zancada[i];
+        if (!cola.isEmpty()) {
+            activos.add(tipo); // Reinsertar con el pase ya actualizado
+        }
+        tamano--;
+        return tarea;
+    }
+
+    @Override
+    public int getTamano() {
+        return tamano;
+    }
+}
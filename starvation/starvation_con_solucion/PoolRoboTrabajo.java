@@ -0,0 +1,158 @@
+package starvation.starvation_con_solucion;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import starvation.MetricasCola;
+import starvation.RegistroLatencias;
+import starvation.starvation_con_solucion.StarvationConSolucion.ColaTareas;
+import starvation.starvation_con_solucion.StarvationConSolucion.Tarea;
+import starvation.starvation_con_solucion.StarvationConSolucion.TipoTarea;
+
+/**
+ * Cola de tareas con ROBO DE TRABAJO: en lugar de un único lock para todos,
+ * cada consumidor tiene su propia cola local (una PoliticaPlanificacion con su
+ * lock; por defecto PlanificadorAging).
+ *
+ * - agregar(): el productor elige dos colas locales al azar y deja la tarea
+ *   en la que tenga menos ("dos opciones al azar": reparte sin contador global)
+ * - obtener(c) / obtenerLote(c, lote): el consumidor c saca de su cola local;
+ *   si no le basta roba de las demás, empezando por la siguiente a la suya
+ * - Dos semáforos sustituyen a las condiciones de ColaCompartida: 'espacio'
+ *   limita el total de tareas a la capacidad y 'disponibles' cuenta las tareas
+ *   que aún no tienen consumidor. Adquirir un permiso de 'disponibles'
+ *   garantiza que alguna cola local tiene una tarea para quien lo adquirió.
+ *
+ * AGING (política por defecto): cada cola local extrae por la misma clave que
+ * ColaCompartida, y el ladrón se lleva la tarea de mayor prioridad efectiva
+ * de su víctima. El orden ya no es global (un consumidor puede atender una M
+ * de su cola mientras otra cola tiene una B más antigua), pero cada tarea está
+ * en una cola cuyo dueño la atiende con aging: una tarea B espera como mucho
+ * lo mismo que en una ColaCompartida con las tareas de esa cola local.
+ */
+class PoolRoboTrabajo implements ColaTareas {
+
+    private static final class ColaLocal {
+        final ReentrantLock lock = new ReentrantLock();
+        final PoliticaPlanificacion planificador;
+        // Copia de planificador.getTamano() para mirar la cola sin tomar su lock
+        volatile int tamano = 0;
+
+        ColaLocal(PoliticaPlanificacion planificador) {
+            this.planificador = planificador;
+        }
+    }
+
+    private final ColaLocal[] locales;
+    private final int capacidad;
+    private final Semaphore espacio;
+    private final Semaphore disponibles = new Semaphore(0);
+    private final MetricasCola<TipoTarea> metricas = new MetricasCola<>(TipoTarea.class);
+    private final RegistroLatencias<TipoTarea> latencias = new RegistroLatencias<>(TipoTarea.class);
+
+    public PoolRoboTrabajo(int capacidad, int numConsumidores) {
+        this(capacidad, numConsumidores, PlanificadorAging::new);
+    }
+
+    // 'politica' crea la política de cada cola local
+    public PoolRoboTrabajo(int capacidad, int numConsumidores, Supplier<PoliticaPlanificacion> politica) {
+        this.capacidad = capacidad;
+        this.espacio = new Semaphore(capacidad);
+        this.locales = new ColaLocal[numConsumidores];
+        for (int i = 0; i < numConsumidores; i++) {
+            locales[i] = new ColaLocal(politica.get());
+        }
+    }
+
+    @Override
+    public void agregar(Tarea tarea) throws InterruptedException {
+        espacio.acquire(); // Espera si el pool está lleno
+        ColaLocal destino = locales[0];
+        if (locales.length > 1) {
+            ThreadLocalRandom azar = ThreadLocalRandom.current();
+            ColaLocal a = locales[azar.nextInt(locales.length)];
+            ColaLocal b = locales[azar.nextInt(locales.length)];
+            destino = a.tamano <= b.tamano ? a : b;
+        }
+        destino.lock.lock();
+        try {
+            destino.planificador.agregar(tarea);
+            destino.tamano = destino.planificador.getTamano();
+            metricas.registrarEncolada(tarea.getTipo());
+        } finally {
+            destino.lock.unlock();
+        }
+        disponibles.release();
+    }
+
+    @Override
+    public Tarea obtener(int consumidor) throws InterruptedException {
+        Tarea[] lote = new Tarea[1];
+        obtenerLote(consumidor, lote);
+        return lote[0];
+    }
+
+    // Reserva hasta lote.length tareas con los permisos de 'disponibles' y las
+    // saca primero de la cola local y después robando, varias por cada lock
+    @Override
+    public int obtenerLote(int consumidor, Tarea[] lote) throws InterruptedException {
+        disponibles.acquire(); // Espera a que haya una tarea sin consumidor
+        int reservadas = 1;
+        while (reservadas < lote.length && disponibles.tryAcquire()) {
+            reservadas++;
+        }
+        int n = extraer(locales[consumidor], lote, 0, reservadas);
+        while (n < reservadas) {
+            // Robar: las tareas que nos corresponden están en otras colas locales
+            for (int k = 1; k < locales.length && n < reservadas; k++) {
+                n = extraer(locales[(consumidor + k) % locales.length], lote, n, reservadas);
+            }
+            if (n < reservadas) {
+                // Otro consumidor se llevó las que vimos: volver a mirar (los permisos aseguran que existen)
+                Thread.onSpinWait();
+                n = extraer(locales[consumidor], lote, n, reservadas);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            metricas.registrarExtraida(lote[i].getTipo());
+        }
+        espacio.release(n);
+        return n;
+    }
+
+    // Llena lote[n..hasta) con las tareas de mayor prioridad efectiva de 'local'
+    // con una sola toma de su lock; devuelve la nueva posición de llenado
+    private static int extraer(ColaLocal local, Tarea[] lote, int n, int hasta) {
+        if (local.tamano == 0) {
+            return n; // Sin tomar el lock: quien agrega escribe 'tamano' antes de liberar el permiso
+        }
+        local.lock.lock();
+        try {
+            Tarea tarea;
+            while (n < hasta && (tarea = local.planificador.extraer()) != null) {
+                lote[n++] = tarea;
+            }
+            local.tamano = local.planificador.getTamano();
+            return n;
+        } finally {
+            local.lock.unlock();
+        }
+    }
+
+    @Override
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    @Override
+    public MetricasCola<TipoTarea> getMetricas() {
+        return metricas;
+    }
+
+    @Override
+    public RegistroLatencias<TipoTarea> getLatencias() {
+        return latencias;
+    }
+}
@@ -1,12 +1,21 @@
 package starvation.starvation_con_solucion;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import starvation.MetricasCola;
+import starvation.RegistroLatencias;
+
 /**
  * Implementación de un sistema de procesamiento de tareas SIN PROBLEMA DE STARVATION
  * 
@@ -20,6 +29,17 @@ import java.util.concurrent.locks.ReentrantLock;
  * - 3 threads consumidores
  * - Tiempos de procesamiento: A=50ms, M=100ms, B=150ms
  * - AGING: Incrementa prioridad cada 1000ms de espera
+ * 
+ * Uso: java starvation.starvation_con_solucion.StarvationConSolucion [modo] [consumidores] [productores] [cola]
+ * - modo: plataforma (por defecto) o virtual (hilos virtuales, Java 21+)
+ * - cola: compartida (por defecto, ColaCompartida) o robo (PoolRoboTrabajo:
+ *   una cola local por consumidor con robo de trabajo)
+ * - -Dpolitica=aging|estricta|stride: política de planificación (por defecto
+ *   aging); con stride, -Dpolitica.cuotas=5,3,2 fija las cuotas de A, M y B
+ * - -Dconsumidor.lote=N: cada consumidor saca hasta N tareas por acceso a la
+ *   cola (por defecto 1: con tareas de 50-150 ms un lote mayor retrasa al resto)
+ * - -Dlatencias.archivo=...: informe periódico de percentiles de espera y
+ *   servicio por tipo (por defecto latencias_starvation.txt)
  */
 public class StarvationConSolucion {
     
@@ -46,19 +66,48 @@ public class StarvationConSolucion {
     
     // Clase que representa una tarea
     static class Tarea {
-        private static int contadorId = 0;
+        // AGING: +0.5 de prioridad por cada 1000ms de espera
+        static final double INCREMENTO_AGING = 0.5;
+        static final long INTERVALO_AGING_MS = 1000;
+        // Milisegundos de espera que equivalen a 1 punto de prioridad base
+        static final long MS_POR_PUNTO_PRIORIDAD = (long) (INTERVALO_AGING_MS / INCREMENTO_AGING);
+        
+        // IDs por bloques: cada hilo productor reserva un bloque de IDs con
+        // una sola operación atómica y luego los asigna sin tocar estado
+        // compartido. Los IDs son únicos y crecen aproximadamente en orden.
+        private static final int TAMANO_BLOQUE_IDS = 8;
+        private static final AtomicInteger siguienteBloque = new AtomicInteger(0);
+        // {siguiente ID a entregar, límite exclusivo del bloque}
+        private static final ThreadLocal<int[]> bloqueIds =
+            ThreadLocal.withInitial(() -> new int[2]);
+        
         private final int id;
         private final TipoTarea tipo;
         private final long tiempoCreacion;
+        // Para medir la espera con resolución de microsegundos
+        private final long nanosCreacion;
         
         public Tarea(TipoTarea tipo) {
-            this.id = ++contadorId;
+            this.id = siguienteId();
             this.tipo = tipo;
             this.tiempoCreacion = System.currentTimeMillis();
+            this.nanosCreacion = System.nanoTime();
+        }
+        
+        private static int siguienteId() {
+            int[] bloque = bloqueIds.get();
+            if (bloque[0] == bloque[1]) {
+                int inicio = siguienteBloque.getAndAdd(TAMANO_BLOQUE_IDS) + 1;
+                bloque[0] = inicio;
+                bloque[1] = inicio + TAMANO_BLOQUE_IDS;
+            }
+            return bloque[0]++;
         }
         
         public int getId() { return id; }
         public TipoTarea getTipo() { return tipo; }
+        public long getTiempoCreacion() { return tiempoCreacion; }
+        public long getNanosCreacion() { return nanosCreacion; }
         public long getTiempoEspera() { 
             return System.currentTimeMillis() - tiempoCreacion; 
         }
@@ -67,10 +116,17 @@ public class StarvationConSolucion {
         public double getPrioridadEfectiva() {
             long tiempoEspera = getTiempoEspera();
             // Incrementa prioridad cada 1000ms (1 segundo)
-            double bonoEnvejecimiento = (tiempoEspera / 1000.0) * 0.5;
+            double bonoEnvejecimiento = (tiempoEspera / (double) INTERVALO_AGING_MS) * INCREMENTO_AGING;
             return tipo.getPrioridadBase() + bonoEnvejecimiento;
         }
         
+        // Clave estática equivalente a la prioridad efectiva:
+        // mayor clave <=> mayor prioridad efectiva en cualquier instante,
+        // sin depender de System.currentTimeMillis()
+        public long getClaveAging() {
+            return tipo.getPrioridadBase() * MS_POR_PUNTO_PRIORIDAD - tiempoCreacion;
+        }
+        
         @Override
         public String toString() {
             return String.format("Tarea#%d[%s,Prior:%.2f]", 
@@ -78,107 +134,199 @@ public class StarvationConSolucion {
         }
     }
     
+    // Lo que productores, consumidores y el monitor necesitan de una cola de tareas.
+    // Las consultas por defecto leen solo las métricas (sin lock).
+    interface ColaTareas {
+        void agregar(Tarea tarea) throws InterruptedException;
+        
+        // 'consumidor' (0..n-1) identifica a quien pide: PoolRoboTrabajo lo usa
+        // para elegir su cola local; ColaCompartida lo ignora
+        Tarea obtener(int consumidor) throws InterruptedException;
+        
+        // Espera a que haya al menos una tarea y llena 'lote' con hasta
+        // lote.length tareas en orden de prioridad efectiva; devuelve cuántas
+        default int obtenerLote(int consumidor, Tarea[] lote) throws InterruptedException {
+            lote[0] = obtener(consumidor);
+            return 1;
+        }
+        
+        int getCapacidad();
+        
+        MetricasCola<TipoTarea> getMetricas();
+        
+        RegistroLatencias<TipoTarea> getLatencias();
+        
+        default int getTamano() {
+            return getMetricas().getTotalEnCola();
+        }
+        
+        default int contarTareasTipoB() {
+            return getMetricas().getEnCola(TipoTarea.B);
+        }
+        
+        default void mostrarEstado() {
+            MetricasCola<TipoTarea> metricas = getMetricas();
+            System.out.println("\n=== ESTADO DE LA COLA ===");
+            System.out.println("Tamaño actual: " + metricas.getTotalEnCola() + "/" + getCapacidad());
+            System.out.println("En cola -> Alta (A): " + metricas.getEnCola(TipoTarea.A) +
+                             ", Media (M): " + metricas.getEnCola(TipoTarea.M) +
+                             ", Baja (B): " + metricas.getEnCola(TipoTarea.B));
+            System.out.println("Procesadas -> Alta (A): " + metricas.getProcesadas(TipoTarea.A) + 
+                             ", Media (M): " + metricas.getProcesadas(TipoTarea.M) + 
+                             ", Baja (B): " + metricas.getProcesadas(TipoTarea.B));
+        }
+        
+        default int[] getEstadisticas() {
+            MetricasCola<TipoTarea> metricas = getMetricas();
+            return new int[] {
+                metricas.getProcesadas(TipoTarea.A),
+                metricas.getProcesadas(TipoTarea.M),
+                metricas.getProcesadas(TipoTarea.B)
+            };
+        }
+    }
+    
     // Cola compartida de tareas con AGING
-    static class ColaCompartida {
-        private final List<Tarea> cola;
+    // Usa un Lock con dos condiciones separadas (no llena / no vacía):
+    // agregar solo despierta a un consumidor y obtener solo a un productor,
+    // en lugar de despertar a todos los hilos con notifyAll()
+    // Los contadores por tipo (MetricasCola) se leen sin el lock; las latencias
+    // (RegistroLatencias) las registran los consumidores, fuera del lock
+    static class ColaCompartida implements ColaTareas {
+        private final PoliticaPlanificacion cola;
         private final int capacidadMaxima;
         private final Lock lock;
-        private int tareasAProcesadas = 0;
-        private int tareasMProcesadas = 0;
-        private int tareasBProcesadas = 0;
+        private final Condition noLlena;
+        private final Condition noVacia;
+        private final MetricasCola<TipoTarea> metricas = new MetricasCola<>(TipoTarea.class);
+        private final RegistroLatencias<TipoTarea> latencias = new RegistroLatencias<>(TipoTarea.class);
         
         public ColaCompartida(int capacidad) {
-            this.cola = new ArrayList<>();
+            this(capacidad, new PlanificadorAging());
+        }
+        
+        public ColaCompartida(int capacidad, PoliticaPlanificacion politica) {
+            this.cola = politica;
             this.capacidadMaxima = capacidad;
             this.lock = new ReentrantLock();
+            this.noLlena = lock.newCondition();
+            this.noVacia = lock.newCondition();
         }
         
         // Agregar tarea a la cola
-        public synchronized boolean agregar(Tarea tarea) throws InterruptedException {
-            while (cola.size() >= capacidadMaxima) {
-                wait(); // Espera si la cola está llena
+        @Override
+        public void agregar(Tarea tarea) throws InterruptedException {
+            lock.lock();
+            try {
+                while (cola.getTamano() >= capacidadMaxima) {
+                    noLlena.await(); // Espera si la cola está llena
+                }
+                cola.agregar(tarea);
+                metricas.registrarEncolada(tarea.getTipo());
+                noVacia.signal();
+            } finally {
+                lock.unlock();
             }
-            cola.add(tarea);
-            notifyAll();
-            return true;
         }
         
         // Obtener tarea CON AGING (evita starvation)
         // SOLUCIÓN: Selecciona tarea con mayor prioridad efectiva
-        public synchronized Tarea obtener() throws InterruptedException {
-            while (cola.isEmpty()) {
-                wait();
-            }
-            
-            // POLÍTICA CON AGING: Ordenar por prioridad efectiva
-            Tarea tareaSeleccionada = cola.stream()
-                .max(Comparator.comparingDouble(Tarea::getPrioridadEfectiva))
-                .orElse(null);
-            
-            if (tareaSeleccionada != null) {
-                cola.remove(tareaSeleccionada);
+        public Tarea obtener() throws InterruptedException {
+            lock.lock();
+            try {
+                while (cola.estaVacio()) {
+                    noVacia.await();
+                }
                 
-                // Registrar estadísticas
-                switch (tareaSeleccionada.getTipo()) {
-                    case A: tareasAProcesadas++; break;
-                    case M: tareasMProcesadas++; break;
-                    case B: tareasBProcesadas++; break;
+                // La política decide; con AGING (por defecto) sale la tarea de
+                // mayor clave estática entre las cabezas de cada tipo
+                Tarea tareaSeleccionada = cola.extraer();
+                
+                if (tareaSeleccionada != null) {
+                    metricas.registrarExtraida(tareaSeleccionada.getTipo());
                 }
+                
+                noLlena.signal();
+                return tareaSeleccionada;
+            } finally {
+                lock.unlock();
             }
-            
-            notifyAll();
-            return tareaSeleccionada;
         }
         
-        public synchronized int getTamano() {
-            return cola.size();
-        }
-        
-        public synchronized int contarTareasTipoB() {
-            int count = 0;
-            for (Tarea t : cola) {
-                if (t.getTipo() == TipoTarea.B) {
-                    count++;
+        // Las 'lote.length' siguientes tareas según la política con una sola toma
+        // del lock: bajo tareas muy cortas reparte el coste de lock/señal entre todas
+        public int obtenerLote(Tarea[] lote) throws InterruptedException {
+            lock.lock();
+            try {
+                while (cola.estaVacio()) {
+                    noVacia.await();
                 }
+                int n = 0;
+                while (n < lote.length && !cola.estaVacio()) {
+                    Tarea tarea = cola.extraer();
+                    metricas.registrarExtraida(tarea.getTipo());
+                    lote[n++] = tarea;
+                }
+                // Un hueco por tarea: despertar a un productor por cada una
+                for (int i = 0; i < n; i++) {
+                    noLlena.signal();
+                }
+                return n;
+            } finally {
+                lock.unlock();
             }
-            return count;
         }
         
-        public synchronized void mostrarEstado() {
-            System.out.println("\n=== ESTADO DE LA COLA ===");
-            System.out.println("Tamaño actual: " + cola.size() + "/" + capacidadMaxima);
-            int countA = 0, countM = 0, countB = 0;
-            for (Tarea t : cola) {
-                switch (t.getTipo()) {
-                    case A: countA++; break;
-                    case M: countM++; break;
-                    case B: countB++; break;
-                }
-            }
-            System.out.println("En cola -> Alta (A): " + countA + ", Media (M): " + countM + ", Baja (B): " + countB);
-            System.out.println("Procesadas -> Alta (A): " + tareasAProcesadas + 
-                             ", Media (M): " + tareasMProcesadas + 
-                             ", Baja (B): " + tareasBProcesadas);
+        @Override
+        public Tarea obtener(int consumidor) throws InterruptedException {
+            return obtener();
         }
         
-        public synchronized int[] getEstadisticas() {
-            return new int[] { tareasAProcesadas, tareasMProcesadas, tareasBProcesadas };
+        @Override
+        public int obtenerLote(int consumidor, Tarea[] lote) throws InterruptedException {
+            return obtenerLote(lote);
+        }
+        
+        @Override
+        public int getCapacidad() {
+            return capacidadMaxima;
+        }
+        
+        // Vista de métricas sin lock: consultarla no frena a productores ni consumidores
+        @Override
+        public MetricasCola<TipoTarea> getMetricas() {
+            return metricas;
+        }
+        
+        @Override
+        public RegistroLatencias<TipoTarea> getLatencias() {
+            return latencias;
         }
     }
     
-    // Thread Productor
-    static class Productor extends Thread {
-        private final ColaCompartida cola;
+    // Productor (se ejecuta en un hilo de plataforma o virtual según ModoEjecucion)
+    static class Productor implements Runnable {
+        private final ColaTareas cola;
         private final int id;
         private final Random random;
         private final int totalTareas = 6; // 30 tareas / 5 productores
+        private Thread hilo;
         
-        public Productor(ColaCompartida cola, int id) {
+        public Productor(ColaTareas cola, int id) {
             this.cola = cola;
             this.id = id;
             this.random = new Random();
         }
         
+        public void iniciar(ThreadFactory fabrica) {
+            hilo = fabrica.newThread(this);
+            hilo.start();
+        }
+        
+        public void join() throws InterruptedException {
+            hilo.join();
+        }
+        
         @Override
         public void run() {
             try {
@@ -211,51 +359,100 @@ public class StarvationConSolucion {
         }
     }
     
-    // Thread Consumidor
-    static class Consumidor extends Thread {
-        private final ColaCompartida cola;
+    // Consumidor (se ejecuta en un hilo de plataforma o virtual según ModoEjecucion)
+    // Con tamanoLote > 1 saca varias tareas por cada acceso a la cola y las
+    // procesa en orden; la espera de cada una se mide hasta que empieza su proceso
+    static class Consumidor implements Runnable {
+        private final ColaTareas cola;
         private final int id;
+        private final Tarea[] lote;
         private volatile boolean ejecutando = true;
+        private Thread hilo;
         
-        public Consumidor(ColaCompartida cola, int id) {
+        public Consumidor(ColaTareas cola, int id, int tamanoLote) {
             this.cola = cola;
             this.id = id;
+            this.lote = new Tarea[tamanoLote];
+        }
+        
+        public void iniciar(ThreadFactory fabrica) {
+            hilo = fabrica.newThread(this);
+            hilo.start();
+        }
+        
+        public void join() throws InterruptedException {
+            hilo.join();
         }
         
         @Override
         public void run() {
             try {
                 while (ejecutando) {
-                    Tarea tarea = cola.obtener();
-                    
-                    long tiempoEspera = tarea.getTiempoEspera();
-                    System.out.println(String.format(
-                        "Consumidor-%d procesando %s (esperó %d ms, prioridad efectiva: %.2f)",
-                        id, tarea, tiempoEspera, tarea.getPrioridadEfectiva()
-                    ));
-                    
-                    // Simular procesamiento
-                    Thread.sleep(tarea.getTipo().getTiempoProcesamiento());
-                    
-                    System.out.println(String.format(
-                        "Consumidor-%d completó %s",
-                        id, tarea
-                    ));
+                    int n = cola.obtenerLote(id - 1, lote);
+                    // El lote ya salió de la cola: se termina entero aunque llegue detener()
+                    for (int i = 0; i < n; i++) {
+                        Tarea tarea = lote[i];
+                        lote[i] = null;
+                        procesar(tarea);
+                    }
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
         }
         
+        private void procesar(Tarea tarea) {
+            long inicioServicio = System.nanoTime();
+            cola.getLatencias().registrarEspera(tarea.getTipo(),
+                (inicioServicio - tarea.getNanosCreacion()) / 1000);
+            
+            long tiempoEspera = tarea.getTiempoEspera();
+            System.out.println(String.format(
+                "Consumidor-%d procesando %s (esperó %d ms, prioridad efectiva: %.2f)",
+                id, tarea, tiempoEspera, tarea.getPrioridadEfectiva()
+            ));
+            
+            // Simular procesamiento
+            dormirSinInterrupcion(tarea.getTipo().getTiempoProcesamiento());
+            cola.getLatencias().registrarServicio(tarea.getTipo(),
+                (System.nanoTime() - inicioServicio) / 1000);
+            cola.getMetricas().registrarProcesada(tarea.getTipo());
+            
+            System.out.println(String.format(
+                "Consumidor-%d completó %s",
+                id, tarea
+            ));
+        }
+        
+        // Duerme 'ms' completos; una interrupción (detener()) se conserva para
+        // que el bucle salga al terminar el lote, no a mitad de una tarea
+        private static void dormirSinInterrupcion(long ms) {
+            boolean interrumpido = false;
+            long fin = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ms);
+            long restante;
+            while ((restante = fin - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(restante);
+                } catch (InterruptedException e) {
+                    interrumpido = true;
+                }
+            }
+            if (interrumpido) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
         public void detener() {
             ejecutando = false;
-            interrupt();
+            hilo.interrupt();
         }
     }
     
     // Monitor de tareas y tabla temporal
+    // En cada pasada también añade los percentiles de latencia a 'archivoLatencias'
     static class MonitorTareas extends Thread {
-        private final ColaCompartida cola;
+        private final ColaTareas cola;
+        private final Path archivoLatencias;
         private volatile boolean ejecutando = true;
         private int maxTareasB = 0;
         private long tiempoInicio;
@@ -264,9 +461,10 @@ public class StarvationConSolucion {
         private final int[] tiempos = {2, 4, 6, 8, 10}; // segundos
         private int indiceActual = 0;
         
-        public MonitorTareas(ColaCompartida cola, long tiempoInicio) {
+        public MonitorTareas(ColaTareas cola, long tiempoInicio, Path archivoLatencias) {
             this.cola = cola;
             this.tiempoInicio = tiempoInicio;
+            this.archivoLatencias = archivoLatencias;
         }
         
         @Override
@@ -286,6 +484,13 @@ public class StarvationConSolucion {
                     maxTareasB = Math.max(maxTareasB, tareasB);
                     
                     System.out.println("\n*** MONITOR: Tareas tipo B en espera: " + tareasB + " ***");
+                    try {
+                        cola.getLatencias().anexarInforme(archivoLatencias, "t=" + tiempoTranscurrido + "s");
+                    } catch (UncheckedIOException e) {
+                        // Un fallo de disco no debe acabar con la monitorización
+                        System.err.println("*** MONITOR: no se pudo anexar el informe de latencias: "
+                            + e.getCause() + " ***");
+                    }
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -315,45 +520,83 @@ public class StarvationConSolucion {
     }
     
     public static void main(String[] args) {
+        ModoEjecucion modo = args.length > 0 ? ModoEjecucion.desdeTexto(args[0]) : ModoEjecucion.PLATAFORMA;
+        int numConsumidores = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int numProductores = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        boolean roboTrabajo = args.length > 3 && args[3].trim().equalsIgnoreCase("robo");
+        int tamanoLote = Integer.getInteger("consumidor.lote", 1);
+        String nombrePolitica = System.getProperty("politica", "aging");
+        int[] cuotas = PoliticaStride.cuotasDesdeTexto(System.getProperty("politica.cuotas", "5,3,2"));
+        Supplier<PoliticaPlanificacion> politica = PoliticaPlanificacion.desdeTexto(nombrePolitica, cuotas);
+        nombrePolitica = nombrePolitica.trim().toLowerCase(); // desdeTexto ya lo validó
+        
         System.out.println("==============================================");
-        System.out.println("  SISTEMA SIN STARVATION (CON AGING)");
+        switch (nombrePolitica) {
+            case "stride":
+                System.out.println("  SISTEMA SIN STARVATION (CON STRIDE)");
+                break;
+            case "estricta":
+                System.out.println("  REFERENCIA: PRIORIDAD ESTRICTA (SIN AGING)");
+                break;
+            default:
+                System.out.println("  SISTEMA SIN STARVATION (CON AGING)");
+        }
         System.out.println("==============================================");
         System.out.println("Características:");
         System.out.println("- Cola compartida: capacidad 20 tareas");
         System.out.println("- Tipos de tareas: A (10%), M (30%), B (60%)");
-        System.out.println("- 5 productores, 3 consumidores");
-        System.out.println("- SOLUCIÓN: AGING (envejecimiento)");
-        System.out.println("  * Prioridad base: A=3, M=2, B=1");
-        System.out.println("  * Incremento: +0.5 cada 1000ms de espera");
+        System.out.println("- " + numProductores + " productores, " + numConsumidores + " consumidores");
+        System.out.println("- Modo de ejecución: " + modo);
+        System.out.println("- Cola: " + (roboTrabajo ? "una local por consumidor, con robo de trabajo" : "compartida"));
+        System.out.println("- Tareas por acceso a la cola: hasta " + tamanoLote);
+        switch (nombrePolitica) {
+            case "stride":
+                System.out.println("- SOLUCIÓN: STRIDE (cuota fija del tiempo de consumidor por tipo)");
+                System.out.println("  * Cuotas A,M,B = " + Arrays.toString(cuotas));
+                System.out.println("  * Con todos los tipos ocupados, el tiempo se reparte según las cuotas");
+                break;
+            case "estricta":
+                System.out.println("- POLÍTICA DE REFERENCIA: PRIORIDAD ESTRICTA (A > M > B)");
+                System.out.println("  * Sin aging: bajo carga sostenida de A y M, las B no salen");
+                break;
+            default:
+                System.out.println("- SOLUCIÓN: AGING (envejecimiento)");
+                System.out.println("  * Prioridad base: A=3, M=2, B=1");
+                System.out.println("  * Incremento: +0.5 cada 1000ms de espera");
+        }
         System.out.println("==============================================\n");
         
-        ColaCompartida cola = new ColaCompartida(20);
+        ColaTareas cola = roboTrabajo
+            ? new PoolRoboTrabajo(20, numConsumidores, politica)
+            : new ColaCompartida(20, politica.get());
+        Path archivoLatencias = Paths.get(System.getProperty("latencias.archivo", "latencias_starvation.txt"));
         
         // Crear productores
-        Productor[] productores = new Productor[5];
-        for (int i = 0; i < 5; i++) {
+        Productor[] productores = new Productor[numProductores];
+        for (int i = 0; i < numProductores; i++) {
             productores[i] = new Productor(cola, i + 1);
         }
         
         // Crear consumidores
-        Consumidor[] consumidores = new Consumidor[3];
-        for (int i = 0; i < 3; i++) {
-            consumidores[i] = new Consumidor(cola, i + 1);
+        Consumidor[] consumidores = new Consumidor[numConsumidores];
+        for (int i = 0; i < numConsumidores; i++) {
+            consumidores[i] = new Consumidor(cola, i + 1, tamanoLote);
         }
         
         // Monitor de tareas
         long tiempoInicio = System.currentTimeMillis();
-        MonitorTareas monitor = new MonitorTareas(cola, tiempoInicio);
+        MonitorTareas monitor = new MonitorTareas(cola, tiempoInicio, archivoLatencias);
         
-        // Iniciar todos los threads
+        // Iniciar todos los threads (el monitor siempre es un hilo de plataforma)
+        ThreadFactory fabrica = modo.crearFabrica();
         monitor.start();
         
         for (Productor p : productores) {
-            p.start();
+            p.iniciar(fabrica);
         }
         
         for (Consumidor c : consumidores) {
-            c.start();
+            c.iniciar(fabrica);
         }
         
         // Esperar a que terminen los productores
@@ -390,6 +633,17 @@ public class StarvationConSolucion {
             System.out.println("\nMáximo de tareas tipo B en espera simultáneas: " + monitor.getMaxTareasB());
             System.out.println("Tiempo total de ejecución: " + (tiempoTotal / 1000.0) + " segundos");
             
+            System.out.println("\nLatencias por tipo (espera en cola y servicio):");
+            cola.getLatencias().imprimir(System.out);
+            try {
+                cola.getLatencias().anexarInforme(archivoLatencias, "final (" + modo + ", "
+                    + numConsumidores + " consumidores, " + numProductores + " productores)");
+                System.out.println("Informe periódico en " + archivoLatencias);
+            } catch (UncheckedIOException e) {
+                System.err.println("No se pudo anexar el informe de latencias a " + archivoLatencias
+                    + ": " + e.getCause());
+            }
+            
             // Análisis
             System.out.println("\n==============================================");
             System.out.println("  ANÁLISIS DE RESULTADOS");
@@ -400,21 +654,54 @@ public class StarvationConSolucion {
             System.out.println("  - Tareas M: " + stats[1] + " (" + (stats[1] * 100.0 / totalProcesadas) + "%)");
             System.out.println("  - Tareas B: " + stats[2] + " (" + (stats[2] * 100.0 / totalProcesadas) + "%)");
             
-            System.out.println("\n*** SOLUCIÓN EXITOSA: El mecanismo de AGING garantizó ***");
-            System.out.println("*** que TODAS las tareas eventualmente se procesaran ***");
-            System.out.println("*** evitando la inanición de las tareas tipo B ***");
-            
-            System.out.println("\n==============================================");
-            System.out.println("  DESCRIPCIÓN DEL ALGORITMO AGING");
-            System.out.println("==============================================");
-            System.out.println("Pseudocódigo:");
-            System.out.println("1. Cada tarea tiene prioridad base (A=3, M=2, B=1)");
-            System.out.println("2. Al obtener tarea de la cola:");
-            System.out.println("   a. Para cada tarea calcular:");
-            System.out.println("      prioridad_efectiva = prioridad_base + (tiempo_espera/1000) * 0.5");
-            System.out.println("   b. Seleccionar tarea con mayor prioridad_efectiva");
-            System.out.println("3. Resultado: Las tareas antiguas aumentan su prioridad");
-            System.out.println("   garantizando que eventualmente sean procesadas");
+            switch (nombrePolitica) {
+                case "stride":
+                    System.out.println("\n*** SOLUCIÓN EXITOSA: STRIDE garantizó a cada tipo ***");
+                    System.out.println("*** su cuota de consumidores, evitando la inanición ***");
+                    System.out.println("*** de las tareas tipo B ***");
+                    
+                    System.out.println("\n==============================================");
+                    System.out.println("  DESCRIPCIÓN DEL ALGORITMO STRIDE");
+                    System.out.println("==============================================");
+                    System.out.println("Pseudocódigo:");
+                    System.out.println("1. Cada tipo tiene una cuota " + Arrays.toString(cuotas) + " y un pase (tiempo virtual)");
+                    System.out.println("2. Al obtener tarea de la cola:");
+                    System.out.println("   a. Elegir el tipo con tareas y menor pase");
+                    System.out.println("   b. Sacar su tarea más antigua y avanzar su pase");
+                    System.out.println("      en tiempo_procesamiento / cuota");
+                    System.out.println("3. Un tipo que vuelve tras estar vacío no acumula crédito");
+                    System.out.println("4. Resultado: toda tarea sale en un tiempo acotado por su cuota");
+                    break;
+                case "estricta":
+                    System.out.println("\n*** REFERENCIA: con PRIORIDAD ESTRICTA las tareas B ***");
+                    System.out.println("*** solo salen cuando no quedan A ni M; aquí salieron ***");
+                    System.out.println("*** porque la producción terminó (compárese la espera de B) ***");
+                    
+                    System.out.println("\n==============================================");
+                    System.out.println("  DESCRIPCIÓN DE LA PRIORIDAD ESTRICTA");
+                    System.out.println("==============================================");
+                    System.out.println("Pseudocódigo:");
+                    System.out.println("1. Una FIFO por tipo");
+                    System.out.println("2. Al obtener tarea: la más antigua de A; si no hay, de M; si no, de B");
+                    System.out.println("3. Resultado: con llegada continua de A y M las B esperan sin límite");
+                    break;
+                default:
+                    System.out.println("\n*** SOLUCIÓN EXITOSA: El mecanismo de AGING garantizó ***");
+                    System.out.println("*** que TODAS las tareas eventualmente se procesaran ***");
+                    System.out.println("*** evitando la inanición de las tareas tipo B ***");
+                    
+                    System.out.println("\n==============================================");
+                    System.out.println("  DESCRIPCIÓN DEL ALGORITMO AGING");
+                    System.out.println("==============================================");
+                    System.out.println("Pseudocódigo:");
+                    System.out.println("1. Cada tarea tiene prioridad base (A=3, M=2, B=1)");
+                    System.out.println("2. Al obtener tarea de la cola:");
+                    System.out.println("   a. Para cada tarea calcular:");
+                    System.out.println("      prioridad_efectiva = prioridad_base + (tiempo_espera/1000) * 0.5");
+                    System.out.println("   b. Seleccionar tarea con mayor prioridad_efectiva");
+                    System.out.println("3. Resultado: Las tareas antiguas aumentan su prioridad");
+                    System.out.println("   garantizando que eventualmente sean procesadas");
+            }
             System.out.println("==============================================");
             
         } catch (InterruptedException e) {